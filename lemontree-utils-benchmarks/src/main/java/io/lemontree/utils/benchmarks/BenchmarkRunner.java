@@ -0,0 +1,37 @@
+package io.lemontree.utils.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of <code>benchmarks.jar</code>. Accepts the usual JMH command line options but writes the results
+ * as JSON to <code>target/jmh-result.json</code> unless <code>-rf</code> / <code>-rff</code> are given.
+ */
+public class BenchmarkRunner {
+
+	static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions cli = new CommandLineOptions(args);
+		if (cli.shouldHelp()) {
+			cli.showHelp();
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+		if (!cli.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!cli.getResult().hasValue()) {
+			options.result(DEFAULT_RESULT_FILE);
+		}
+		Runner runner = new Runner(options.build());
+		if (cli.shouldList()) {
+			runner.list();
+			return;
+		}
+		runner.run();
+	}
+}
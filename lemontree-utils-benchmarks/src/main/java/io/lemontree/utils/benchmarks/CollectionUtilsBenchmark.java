@@ -0,0 +1,231 @@
+package io.lemontree.utils.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lemontree.utils.CollectionUtils;
+
+/**
+ * Methods of {@link CollectionUtils} on token streams and identifier lists of <code>size</code> items.
+ * Methods writing to <code>System.out</code> (<code>print</code>) are not benchmarked.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionUtilsBenchmark {
+
+	@Param({"10", "1000", "100000"})
+	public int size;
+
+	private List<Integer> tokens;
+	private List<Integer> tokensCopy;
+	private List<Integer> sequence;
+	private List<String> identifiers;
+	private List<String> removings;
+	private List<String> sameValues;
+	private List<List<Integer>> lists;
+	private Integer[] tokenArray;
+
+	@Setup
+	public void setUp() {
+		tokens = Fixtures.tokens(size, 8);
+		tokensCopy = new ArrayList<Integer>(tokens);
+		// a sequence that only occurs at the very end, after many partial matches
+		sequence = new ArrayList<Integer>(Collections.nCopies(7, 0));
+		sequence.add(8);
+		tokens.addAll(sequence);
+		tokensCopy.addAll(sequence);
+		identifiers = Fixtures.identifiers(size, Math.max(size / 10, 1));
+		removings = new ArrayList<String>(Fixtures.identifiers(size / 10, Math.max(size / 100, 1)));
+		sameValues = new ArrayList<String>(Collections.nCopies(size, "lemon"));
+		lists = new ArrayList<List<Integer>>();
+		Random random = new Random(Fixtures.SEED);
+		for (int i = 0; i < size / 10; i++) {
+			lists.add(new ArrayList<Integer>(Collections.nCopies(random.nextInt(20), i)));
+		}
+		tokenArray = tokens.toArray(new Integer[0]);
+	}
+
+	/**
+	 * Fresh lists for benchmarks modifying their input; 1% of the indexes are removed.
+	 */
+	@State(Scope.Thread)
+	public static class MutableState {
+
+		List<Integer> list;
+		List<Integer> removeIds;
+		int[] removeIdArray;
+		List<String> all;
+
+		@Setup(Level.Invocation)
+		public void setUp(CollectionUtilsBenchmark benchmark) {
+			list = new ArrayList<Integer>(benchmark.tokens);
+			removeIds = new ArrayList<Integer>();
+			for (int i = 0; i < list.size(); i += 100) {
+				removeIds.add(i);
+			}
+			removeIdArray = new int[removeIds.size()];
+			for (int i = 0; i < removeIdArray.length; i++) {
+				removeIdArray[i] = removeIds.get(i);
+			}
+			all = new ArrayList<String>(benchmark.removings);
+		}
+	}
+
+	@Benchmark
+	public List<Integer> removeMultipleIndexes(MutableState state) {
+		CollectionUtils.removeMultipleIndexes(state.list, state.removeIds);
+		return state.list;
+	}
+
+	@Benchmark
+	public List<Integer> removeMultipleIndexes_intArray(MutableState state) {
+		CollectionUtils.removeMultipleIndexes(state.list, state.removeIdArray);
+		return state.list;
+	}
+
+	@Benchmark
+	public List<Integer> removeMultipleIndexes_legacy(MutableState state) {
+		LegacyImplementations.removeMultipleIndexes(state.list, state.removeIds);
+		return state.list;
+	}
+
+	@Benchmark
+	public List<Integer> removeIndexRangeInPlace(MutableState state) {
+		CollectionUtils.removeIndexRangeInPlace(state.list, state.list.size() / 10, state.list.size() / 2);
+		return state.list;
+	}
+
+	@Benchmark
+	public List<String> addAllIfNotContains(MutableState state) {
+		CollectionUtils.addAllIfNotContains(state.all, identifiers);
+		return state.all;
+	}
+
+	@Benchmark
+	public boolean checkForEqualityOnAllValues() {
+		return CollectionUtils.checkForEqualityOnAllValues(sameValues);
+	}
+
+	@Benchmark
+	public List<?> removeItems() {
+		return CollectionUtils.removeItems(identifiers, removings);
+	}
+
+	@Benchmark
+	public List<?> getItemsNotIn() {
+		return CollectionUtils.getItemsNotIn(identifiers, removings);
+	}
+
+	@Benchmark
+	public List<?> getItemsNotIn_legacy() {
+		return LegacyImplementations.getItemsNotIn(identifiers, removings);
+	}
+
+	@Benchmark
+	public List<Integer> copyList() {
+		return CollectionUtils.copyList(tokens);
+	}
+
+	@Benchmark
+	public boolean isSublist() {
+		return CollectionUtils.isSublist(sequence, tokens);
+	}
+
+	@Benchmark
+	public int indexOfSublist() {
+		return CollectionUtils.indexOfSublist(sequence, tokens);
+	}
+
+	@Benchmark
+	public int indexOfSublist_comparator() {
+		return CollectionUtils.indexOfSublist(sequence, tokens, Comparator.<Integer>naturalOrder());
+	}
+
+	@Benchmark
+	public int lastIndexOfSublist() {
+		return CollectionUtils.lastIndexOfSublist(sequence, tokens);
+	}
+
+	@Benchmark
+	public int[] indexesOfSublist() {
+		return CollectionUtils.indexesOfSublist(sequence.subList(0, 3), tokens);
+	}
+
+	@Benchmark
+	public List<?> removeIndexRange() {
+		return CollectionUtils.removeIndexRange(tokens, tokens.size() / 10, tokens.size() / 2);
+	}
+
+	@Benchmark
+	public int count() {
+		return CollectionUtils.count(3, tokens);
+	}
+
+	@Benchmark
+	public boolean equalsAll() {
+		return CollectionUtils.equalsAll(tokens, tokensCopy);
+	}
+
+	@Benchmark
+	public List<String> getWrappedInList() {
+		return CollectionUtils.getWrappedInList("lemon");
+	}
+
+	@Benchmark
+	public List<Integer> getItemsAddedToNewList() {
+		return CollectionUtils.getItemsAddedToNewList(tokens);
+	}
+
+	@Benchmark
+	public List<List<Integer>> sortBySize() {
+		List<List<Integer>> copy = new ArrayList<List<Integer>>(lists);
+		CollectionUtils.sortBySize(copy);
+		return copy;
+	}
+
+	@Benchmark
+	public List<Integer> insertAtPosition() {
+		return CollectionUtils.insertAtPosition(tokens, tokens.size() / 2, 1, 2, 3);
+	}
+
+	@Benchmark
+	public List<Integer> createListFromIterable() {
+		return CollectionUtils.createListFromIterable(tokenArray);
+	}
+
+	@Benchmark
+	public List<Integer> createListFromCollection() {
+		return CollectionUtils.createListFromCollection(tokens);
+	}
+
+	@Benchmark
+	public List<Integer> getLast() {
+		return CollectionUtils.getLast(tokens, 100);
+	}
+
+	@Benchmark
+	public Integer getLastItem() {
+		return CollectionUtils.getLastItem(tokens);
+	}
+}
@@ -0,0 +1,292 @@
+package io.lemontree.utils.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lemontree.utils.FileTreeReport;
+import io.lemontree.utils.FileUtils;
+import io.lemontree.utils.MappedRecordFile;
+
+/**
+ * Methods of {@link FileUtils} on a generated log file of <code>fileSizeMb</code> MB and a directory tree of
+ * <code>treeDepth</code> levels (3 subdirectories and 10 files of 4 KB per directory) in a temp directory.
+ * Operations deleting or replacing the tree run once per invocation (single shot) on a fresh copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileUtilsBenchmark {
+
+	private static final int TREE_FANOUT = 3;
+	private static final int FILES_PER_DIR = 10;
+	private static final int FILE_SIZE = 4096;
+
+	@Param({"1", "64"})
+	public int fileSizeMb;
+
+	@Param({"3", "6"})
+	public int treeDepth;
+
+	private Path dir;
+	private Path logFile;
+	private Path target;
+	private Path tree;
+	private byte[] logBytes;
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("lemontree-bench");
+		String log = Fixtures.log(fileSizeMb * 1024 * 1024 / 90);
+		logBytes = log.getBytes(StandardCharsets.UTF_8);
+		logFile = Fixtures.writeFile(dir.resolve("app.log"), log);
+		target = dir.resolve("copy.log");
+		tree = Fixtures.directoryTree(dir.resolve("tree"), treeDepth, TREE_FANOUT, FILES_PER_DIR, FILE_SIZE);
+		pool = new ForkJoinPool(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		pool.shutdown();
+		Fixtures.delete(dir);
+	}
+
+	// single files and streams
+
+	@Benchmark
+	public Path copyFile() {
+		FileUtils.copyFile(logFile.toString(), target.toString());
+		return target;
+	}
+
+	@Benchmark
+	public long transferFile_path() throws IOException {
+		return FileUtils.transferFile(logFile, target);
+	}
+
+	@Benchmark
+	public long transferFile_channel() throws IOException {
+		try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			return FileUtils.transferFile(logFile, out);
+		}
+	}
+
+	@Benchmark
+	public long transferFile_outputStream() throws IOException {
+		try (OutputStream out = Files.newOutputStream(target)) {
+			return FileUtils.transferFile(logFile, out);
+		}
+	}
+
+	@Benchmark
+	public long transfer() throws IOException {
+		try (FileInputStream in = new FileInputStream(logFile.toFile());
+				WritableByteChannel out = Channels.newChannel(Files.newOutputStream(target))) {
+			return FileUtils.transfer(in.getChannel(), out);
+		}
+	}
+
+	@Benchmark
+	public Path copyStreamToFile() {
+		FileUtils.copyStreamToFile(new ByteArrayInputStream(logBytes), target.toString());
+		return target;
+	}
+
+	@Benchmark
+	public Path copyStreamToFile_resource() {
+		FileUtils.copyStreamToFile("META-INF/MANIFEST.MF", target.toString());
+		return target;
+	}
+
+	@Benchmark
+	public Path copyFileToOutputStream() throws IOException {
+		FileUtils.copyFileToOutputStream(logFile.toFile(), Files.newOutputStream(target));
+		return target;
+	}
+
+	@Benchmark
+	public File streamToTempFile() throws IOException {
+		File file = FileUtils.streamToTempFile(new ByteArrayInputStream(logBytes));
+		file.delete();
+		return file;
+	}
+
+	@Benchmark
+	public File getResourceAsTempFile() throws IOException, URISyntaxException {
+		File file = FileUtils.getResourceAsTempFile("META-INF/MANIFEST.MF");
+		file.delete();
+		return file;
+	}
+
+	@Benchmark
+	public long mapRecords() throws IOException {
+		try (MappedRecordFile records = FileUtils.mapRecords(logFile, (byte) '\n')) {
+			return records.records(false).count();
+		}
+	}
+
+	@Benchmark
+	public long mapLines() throws IOException {
+		return FileUtils.mapLines(logFile, StandardCharsets.UTF_8, false).count();
+	}
+
+	@Benchmark
+	public long mapLines_parallel() throws IOException {
+		return FileUtils.mapLines(logFile, StandardCharsets.UTF_8, true).count();
+	}
+
+	// directory trees
+
+	@Benchmark
+	public List<File> readFilesRecursive() {
+		return FileUtils.readFilesRecursive(tree.toString(), new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(".log");
+			}
+		});
+	}
+
+	@Benchmark
+	public List<File> readFilesRecursive_file() {
+		return FileUtils.readFilesRecursive(tree.toFile(), null);
+	}
+
+	@Benchmark
+	public List<Path> walkFiles() {
+		return FileUtils.walkFiles(tree).list();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 10)
+	public FileTreeReport copyTree(TreeCopyState state) throws InterruptedException, ExecutionException {
+		return FileUtils.copyTree(tree, state.copy).get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 10)
+	public FileTreeReport copyTree_executor(TreeCopyState state) throws InterruptedException, ExecutionException {
+		return FileUtils.copyTree(tree, state.copy, pool).get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 10)
+	public FileTreeReport deleteTree(TreeDeleteState state) throws InterruptedException, ExecutionException {
+		return FileUtils.deleteTree(state.copy).get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 10)
+	public FileTreeReport deleteTree_executor(TreeDeleteState state) throws InterruptedException, ExecutionException {
+		return FileUtils.deleteTree(state.copy, pool).get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 10)
+	public Path deleteDir(TreeDeleteState state) {
+		FileUtils.deleteDir(state.copy.toFile());
+		return state.copy;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 10)
+	public Path deleteDir_string(TreeDeleteState state) {
+		FileUtils.deleteDir(state.copy.toString());
+		return state.copy;
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 3)
+	@Measurement(iterations = 10)
+	public Path createDir(TreeCopyState state) {
+		FileUtils.createDir(state.copy.toString());
+		return state.copy;
+	}
+
+	/**
+	 * Provides a not yet existing target directory and removes it after the invocation.
+	 */
+	@State(Scope.Thread)
+	public static class TreeCopyState {
+
+		Path copy;
+
+		@Setup(Level.Invocation)
+		public void setUp(FileUtilsBenchmark benchmark) throws IOException {
+			copy = benchmark.dir.resolve("tree-copy");
+			Fixtures.delete(copy);
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() throws IOException {
+			Fixtures.delete(copy);
+		}
+	}
+
+	/**
+	 * Provides a fresh directory tree to be deleted by the invocation.
+	 */
+	@State(Scope.Thread)
+	public static class TreeDeleteState {
+
+		Path copy;
+
+		@Setup(Level.Invocation)
+		public void setUp(FileUtilsBenchmark benchmark) throws IOException {
+			copy = benchmark.dir.resolve("tree-delete");
+			Fixtures.delete(copy);
+			Fixtures.directoryTree(copy, benchmark.treeDepth, TREE_FANOUT, FILES_PER_DIR, FILE_SIZE);
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown() throws IOException {
+			Fixtures.delete(copy);
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package io.lemontree.utils.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generators for realistic benchmark inputs: nested HTML templates, log files, word lists,
+ * token streams and directory trees. The same seed always produces the same fixture, so runs are comparable.
+ */
+final class Fixtures {
+
+	static final long SEED = 42;
+
+	private static final String[] WORDS = {"lemon", "tree", "request", "user", "order", "invoice", "customer", "price",
+			"amount", "status", "created", "updated", "name", "address", "city", "country", "product", "category",
+			"über", "größe", "café", "naïve"};
+	private static final String[] TAGS = {"div", "span", "section", "p", "li", "td"};
+	private static final String[] LEVELS = {"INFO", "INFO", "INFO", "DEBUG", "WARN", "ERROR"};
+
+	private Fixtures() {
+	}
+
+	/**
+	 * @return An HTML template with <code>elements</code> tags nested up to 8 levels deep, containing text with
+	 * NO-BREAK SPACEs, <code>${placeholders}</code> and escaped placeholders.
+	 */
+	static String nestedHtml(int elements) {
+		Random random = new Random(SEED);
+		StringBuilder out = new StringBuilder(elements * 64);
+		List<String> open = new ArrayList<String>();
+		out.append("<html>\n");
+		for (int i = 0; i < elements; i++) {
+			if (open.size() < 8 && (open.isEmpty() || random.nextInt(3) > 0)) {
+				String tag = TAGS[random.nextInt(TAGS.length)];
+				indent(out, open.size());
+				out.append('<').append(tag).append(" class=\"").append(word(random)).append("\">\n");
+				open.add(tag);
+			} else {
+				indent(out, open.size() - 1);
+				out.append("</").append(open.remove(open.size() - 1)).append(">\n");
+			}
+			indent(out, open.size());
+			out.append(" ").append(word(random)).append(' ').append("${").append(word(random)).append('}');
+			if (random.nextInt(10) == 0) {
+				out.append(" \\${escaped\\}");
+			}
+			out.append(" \n");
+		}
+		while (!open.isEmpty()) {
+			indent(out, open.size() - 1);
+			out.append("</").append(open.remove(open.size() - 1)).append(">\n");
+		}
+		return out.append("</html>\n").toString();
+	}
+
+	private static void indent(StringBuilder out, int depth) {
+		for (int i = 0; i < depth; i++) {
+			out.append("  ");
+		}
+	}
+
+	/**
+	 * @return Log file content with <code>lines</code> lines of varying level, thread, logger and message.
+	 */
+	static String log(int lines) {
+		Random random = new Random(SEED);
+		StringBuilder out = new StringBuilder(lines * 96);
+		for (int i = 0; i < lines; i++) {
+			out.append("2024-03-").append(10 + i % 20).append('T').append(10 + i % 12).append(':')
+					.append(10 + i % 50).append(":00.").append(100 + i % 900).append(' ')
+					.append(LEVELS[random.nextInt(LEVELS.length)]).append(" [worker-").append(random.nextInt(16)).append("] ")
+					.append("io.lemontree.").append(word(random)).append("Service - Request ").append(random.nextInt(100000))
+					.append(" for ").append(word(random)).append(" took ").append(random.nextInt(500)).append(" ms\n");
+		}
+		return out.toString();
+	}
+
+	/**
+	 * @return <code>count</code> identifiers like "customer_order_status" built from <code>distinct</code> different values.
+	 */
+	static List<String> identifiers(int count, int distinct) {
+		Random random = new Random(SEED);
+		List<String> pool = new ArrayList<String>(distinct);
+		for (int i = 0; i < distinct; i++) {
+			pool.add(word(random) + "_" + word(random) + "_" + word(random) + (i < WORDS.length ? "" : String.valueOf(i)));
+		}
+		List<String> out = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			out.add(pool.get(random.nextInt(distinct)));
+		}
+		return out;
+	}
+
+	/**
+	 * @return Sentences of 3 to 10 words, some with surrounding whitespace.
+	 */
+	static List<String> sentences(int count) {
+		Random random = new Random(SEED);
+		List<String> out = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			StringBuilder sentence = new StringBuilder(random.nextBoolean() ? "  " : "");
+			int words = 3 + random.nextInt(8);
+			for (int w = 0; w < words; w++) {
+				if (w > 0) {
+					sentence.append(' ');
+				}
+				sentence.append(word(random));
+			}
+			out.add(sentence.append(random.nextBoolean() ? "\t " : "").toString());
+		}
+		return out;
+	}
+
+	/**
+	 * @return A token stream of <code>count</code> tokens out of a vocabulary of <code>vocabulary</code> tokens.
+	 */
+	static List<Integer> tokens(int count, int vocabulary) {
+		Random random = new Random(SEED);
+		List<Integer> out = new ArrayList<Integer>(count);
+		for (int i = 0; i < count; i++) {
+			out.add(random.nextInt(vocabulary));
+		}
+		return out;
+	}
+
+	private static String word(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+
+	static Path writeFile(Path file, String content) throws IOException {
+		return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Creates a directory tree below <code>root</code>.
+	 * @param depth Number of directory levels.
+	 * @param fanout Number of subdirectories per directory.
+	 * @param filesPerDir Number of files per directory.
+	 * @param fileSize Size of each file in bytes.
+	 */
+	static Path directoryTree(Path root, int depth, int fanout, int filesPerDir, int fileSize) throws IOException {
+		Files.createDirectories(root);
+		byte[] content = log(fileSize / 80 + 1).substring(0, fileSize).getBytes(StandardCharsets.UTF_8);
+		createLevel(root, depth, fanout, filesPerDir, content);
+		return root;
+	}
+
+	private static void createLevel(Path dir, int depth, int fanout, int filesPerDir, byte[] content) throws IOException {
+		for (int i = 0; i < filesPerDir; i++) {
+			Files.write(dir.resolve("file-" + i + ".log"), content);
+		}
+		if (depth == 0) {
+			return;
+		}
+		for (int i = 0; i < fanout; i++) {
+			Path sub = Files.createDirectory(dir.resolve("dir-" + i));
+			createLevel(sub, depth - 1, fanout, filesPerDir, content);
+		}
+	}
+
+	/**
+	 * Deletes a fixture directory sequentially, independent of the code under test.
+	 */
+	static void delete(Path root) throws IOException {
+		if (!Files.exists(root)) {
+			return;
+		}
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+}
@@ -0,0 +1,127 @@
+package io.lemontree.utils.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Vector;
+
+/**
+ * Copies of the implementations 1.0.0 replaced, kept as baselines so the benchmarks show the speedup
+ * of the rewritten methods. Not to be used outside of benchmarks.
+ */
+final class LegacyImplementations {
+
+	private LegacyImplementations() {
+	}
+
+	static String getLongestCommonSubstring(String string1, String string2) {
+		int start = 0;
+		int max = 0;
+		for (int i = 0; i < string1.length(); i++) {
+			for (int j = 0; j < string2.length(); j++) {
+				int x = 0;
+				while (string1.charAt(i + x) == string2.charAt(j + x)) {
+					x++;
+					if (((i + x) >= string1.length()) || ((j + x) >= string2.length())) break;
+				}
+				if (x > max) {
+					max = x;
+					start = i;
+				}
+			}
+		}
+		return string1.substring(start, (start + max));
+	}
+
+	static String concatStrings(List<String> values) {
+		String out = "";
+		for (String value : values) {
+			out += value;
+		}
+		return out;
+	}
+
+	static String concatArray(String[] splitStr, String seperator) {
+		String out = "";
+		for (int i = 0; i < splitStr.length; i++) {
+			if (i > 0) {
+				out += seperator;
+			}
+			out += splitStr[i];
+		}
+		return out;
+	}
+
+	static String toCamelCase(String string) {
+		String[] splitStr = string.toLowerCase().split(" ");
+		for (int i = 0; i < splitStr.length; i++) {
+			splitStr[i] = toUpperCaseBegin(splitStr[i]);
+		}
+		String out = "";
+		for (int i = 0; i < splitStr.length; i++) {
+			if (i > 0) {
+				out += " ";
+			}
+			out += splitStr[i];
+		}
+		return out;
+	}
+
+	static String convertSeparatorToCamelCase_UpperCaseBegin(final String rawName, String separator) {
+		String[] nameParts = rawName.split(separator);
+		String name = "";
+		for (String namePart : nameParts) {
+			name += toUpperCaseBegin(namePart);
+		}
+		return name;
+	}
+
+	static String toUpperCaseBegin(String str) {
+		if (!str.isEmpty()) {
+			return str.substring(0, 1).toUpperCase() + "" + str.substring(1);
+		}
+		return "";
+	}
+
+	static List<String> getEncapsulatedStrings(String content, String from, String to, boolean includeBorders) {
+		List<String> strings = new Vector<String>();
+		int startPos = content.indexOf(from);
+		while (startPos > -1) {
+			String substring = "";
+			int endPos = content.indexOf(to, startPos + from.length());
+			if (endPos == -1)
+				break;
+			if (includeBorders) {
+				substring = content.substring(startPos, endPos + to.length());
+			} else {
+				substring = content.substring(startPos + from.length(), endPos);
+			}
+			strings.add(substring);
+			startPos = content.indexOf(from, endPos + to.length());
+		}
+		return strings;
+	}
+
+	static void removeMultipleIndexes(List<?> list, final List<Integer> removeIds) {
+		Collections.sort(removeIds, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return i2.compareTo(i1);
+			}
+		});
+		for (Integer idx : removeIds) {
+			list.remove(idx.intValue());
+		}
+	}
+
+	static List<?> getItemsNotIn(List<?> lookupItems, List<?> mustNotEqualItems) {
+		List<Object> filtered = new ArrayList<Object>();
+		for (Object lookup : lookupItems) {
+			if (!mustNotEqualItems.contains(lookup)) {
+				filtered.add(lookup);
+			}
+		}
+		return filtered;
+	}
+}
@@ -0,0 +1,445 @@
+package io.lemontree.utils.benchmarks;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.lemontree.utils.CompactStringList;
+import io.lemontree.utils.NestedStructureIndex;
+import io.lemontree.utils.PositionRange;
+import io.lemontree.utils.StringSlice;
+import io.lemontree.utils.StringUtils;
+
+/**
+ * In-memory methods of {@link StringUtils}. <code>size</code> is the number of template elements, log lines or list items.
+ * Methods writing to <code>System.out</code> (<code>printList</code>, <code>printStream</code>) are not benchmarked,
+ * file based methods are covered by {@link StringUtilsFileBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilsBenchmark {
+
+	@Param({"100", "10000"})
+	public int size;
+
+	private String html;
+	private String log;
+	private byte[] logBytes;
+	private List<String> identifiers;
+	private CompactStringList compactIdentifiers;
+	private List<String> sentences;
+	private String[] sentenceArray;
+	private String[] removals;
+	private Map<String, String> replacements;
+	private String lastIdentifier;
+
+	@Setup
+	public void setUp() {
+		html = Fixtures.nestedHtml(size);
+		log = Fixtures.log(size);
+		logBytes = log.getBytes(StandardCharsets.UTF_8);
+		identifiers = Fixtures.identifiers(size, Math.max(size / 10, 1));
+		compactIdentifiers = new CompactStringList(identifiers);
+		sentences = Fixtures.sentences(size);
+		sentenceArray = sentences.toArray(new String[0]);
+		removals = new String[] {"DEBUG ", "[worker-1] ", " ms"};
+		replacements = new HashMap<String, String>();
+		replacements.put("customer", "client");
+		replacements.put("order", "purchase");
+		replacements.put("status", "state");
+		lastIdentifier = identifiers.get(identifiers.size() - 1);
+	}
+
+	// nested structures
+
+	@Benchmark
+	public PositionRange getFirstNestedEncapsulationPosition() {
+		return StringUtils.getFirstNestedEncapsulationPosition(html, "<div", "</div>");
+	}
+
+	@Benchmark
+	public NestedStructureIndex indexNestedStructure() {
+		return StringUtils.indexNestedStructure(html, "<div", "</div>");
+	}
+
+	@Benchmark
+	public String getEnclosedContentInNestedStructure() {
+		return StringUtils.getEnclosedContentInNestedStructure("<section", "</section>", html, true);
+	}
+
+	@Benchmark
+	public StringSlice getEnclosedSliceInNestedStructure() {
+		return StringUtils.getEnclosedSliceInNestedStructure("<section", "</section>", html, true);
+	}
+
+	@Benchmark
+	public Integer[] getEnclosedContentInNestedStructurePositions() {
+		return StringUtils.getEnclosedContentInNestedStructurePositions("<section", "</section>", html, false);
+	}
+
+	// encapsulated strings
+
+	@Benchmark
+	public String getEncapsulatedString() {
+		return StringUtils.getEncapsulatedString(html, "${", "}", false);
+	}
+
+	@Benchmark
+	public StringSlice getEncapsulatedSlice() {
+		return StringUtils.getEncapsulatedSlice(html, "${", "}", false);
+	}
+
+	@Benchmark
+	public List<String> getEncapsulatedStrings() {
+		return StringUtils.getEncapsulatedStrings(html, "${", "}", false);
+	}
+
+	@Benchmark
+	public List<String> getEncapsulatedStrings_legacy() {
+		return LegacyImplementations.getEncapsulatedStrings(html, "${", "}", false);
+	}
+
+	@Benchmark
+	public void getEncapsulatedStrings_reader(final Blackhole blackhole) {
+		StringUtils.getEncapsulatedStrings(new StringReader(html), "${", "}", false, new Consumer<CharSequence>() {
+			@Override
+			public void accept(CharSequence match) {
+				blackhole.consume(match);
+			}
+		});
+	}
+
+	@Benchmark
+	public List<String> getEncapsulatedStrings_IgnoreEscaped() {
+		return StringUtils.getEncapsulatedStrings_IgnoreEscaped(html, "${", "}", false, "\\");
+	}
+
+	// case conversion
+
+	@Benchmark
+	public void toCamelCase(Blackhole blackhole) {
+		for (String sentence : sentences) {
+			blackhole.consume(StringUtils.toCamelCase(sentence));
+		}
+	}
+
+	@Benchmark
+	public void toCamelCase_legacy(Blackhole blackhole) {
+		for (String sentence : sentences) {
+			blackhole.consume(LegacyImplementations.toCamelCase(sentence));
+		}
+	}
+
+	@Benchmark
+	public void convertSeparatorToCamelCase_LowerCaseBegin(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(StringUtils.convertSeparatorToCamelCase_LowerCaseBegin(identifier, "_"));
+		}
+	}
+
+	@Benchmark
+	public void convertSeparatorToCamelCase_UpperCaseBegin(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(StringUtils.convertSeparatorToCamelCase_UpperCaseBegin(identifier, "_"));
+		}
+	}
+
+	@Benchmark
+	public void convertSeparatorToCamelCase_UpperCaseBegin_legacy(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(LegacyImplementations.convertSeparatorToCamelCase_UpperCaseBegin(identifier, "_"));
+		}
+	}
+
+	@Benchmark
+	public void toLowerCaseBegin(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(StringUtils.toLowerCaseBegin(identifier));
+		}
+	}
+
+	@Benchmark
+	public void toUpperCaseBegin(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(StringUtils.toUpperCaseBegin(identifier));
+		}
+	}
+
+	@Benchmark
+	public void toUpperCaseBegin_legacy(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(LegacyImplementations.toUpperCaseBegin(identifier));
+		}
+	}
+
+	// searching and counting
+
+	@Benchmark
+	public String createString() {
+		return StringUtils.createString(logBytes, "UTF-8");
+	}
+
+	@Benchmark
+	public String removeFromString() {
+		return StringUtils.removeFromString(log, removals);
+	}
+
+	@Benchmark
+	public int countOccurrence() {
+		return StringUtils.countOccurrence(log, "ERROR");
+	}
+
+	@Benchmark
+	public int countLiteral() {
+		return StringUtils.countLiteral(log, "ERROR");
+	}
+
+	@Benchmark
+	public int[] indexOfAll() {
+		return StringUtils.indexOfAll(log, " ms\n");
+	}
+
+	@Benchmark
+	public String escapeRegExCharacters() {
+		return StringUtils.escapeRegExCharacters(html);
+	}
+
+	@Benchmark
+	public String replaceAtPosition() {
+		return StringUtils.replaceAtPosition(log, log.length() / 2, log.length() / 2 + 5, "#####");
+	}
+
+	@Benchmark
+	public StringBuilder appendReplacedAtPosition() {
+		return StringUtils.appendReplacedAtPosition(new StringBuilder(log.length()), log, log.length() / 2, log.length() / 2 + 5, "#####");
+	}
+
+	@Benchmark
+	public int endIndexOf() {
+		return StringUtils.endIndexOf(log, "ERROR");
+	}
+
+	@Benchmark
+	public String replaceFirstOccurrence() {
+		return StringUtils.replaceFirstOccurrence(log, "ERROR", "FAILURE");
+	}
+
+	@Benchmark
+	public String replaceLastOccurrence() {
+		return StringUtils.replaceLastOccurrence(log, "ERROR", "FAILURE");
+	}
+
+	@Benchmark
+	public boolean containsWhitespace() {
+		return StringUtils.containsWhitespace(lastIdentifier);
+	}
+
+	@Benchmark
+	public void startsWithIgnoreCase(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(StringUtils.startsWithIgnoreCase(identifier, "CUSTOMER"));
+		}
+	}
+
+	@Benchmark
+	public void endsWithIgnoreCase(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(StringUtils.endsWithIgnoreCase(identifier, "STATUS"));
+		}
+	}
+
+	@Benchmark
+	public void isNullOrEmpty(Blackhole blackhole) {
+		for (String identifier : identifiers) {
+			blackhole.consume(StringUtils.isNullOrEmpty(identifier));
+			blackhole.consume(StringUtils.isNotNullNorEmpty(identifier));
+			blackhole.consume(StringUtils.emptyIfNull(identifier));
+		}
+	}
+
+	// whitespace
+
+	@Benchmark
+	public void trimHtmlAware(Blackhole blackhole) {
+		for (String sentence : sentences) {
+			blackhole.consume(StringUtils.trimHtmlAware(sentence));
+		}
+	}
+
+	@Benchmark
+	public String[] trimAllItems() {
+		return StringUtils.trimAllItems(sentenceArray);
+	}
+
+	@Benchmark
+	public String replaceNoBreakSpaces() {
+		return StringUtils.replaceNoBreakSpaces(html);
+	}
+
+	// lists
+
+	@Benchmark
+	public List<String> getDistinctValues() {
+		return StringUtils.getDistinctValues(identifiers);
+	}
+
+	@Benchmark
+	public CompactStringList getDistinctValues_compact() {
+		return StringUtils.getDistinctValues(compactIdentifiers);
+	}
+
+	@Benchmark
+	public boolean isContainedInList() {
+		return StringUtils.isContainedInList(lastIdentifier, identifiers);
+	}
+
+	@Benchmark
+	public boolean isContainedInArray() {
+		return StringUtils.isContainedInArray(lastIdentifier, sentenceArray);
+	}
+
+	@Benchmark
+	public boolean isSubstringContainedInList() {
+		return StringUtils.isSubstringContainedInList(identifiers, "zzz");
+	}
+
+	@Benchmark
+	public int countOccurrenceInList() {
+		return StringUtils.countOccurrenceInList(identifiers, lastIdentifier);
+	}
+
+	@Benchmark
+	public int countOccurrenceInList_compact() {
+		return StringUtils.countOccurrenceInList(compactIdentifiers, lastIdentifier);
+	}
+
+	@Benchmark
+	public List<String> copyList() {
+		return StringUtils.copyList(identifiers);
+	}
+
+	@Benchmark
+	public CompactStringList copyList_compact() {
+		return StringUtils.copyList(compactIdentifiers);
+	}
+
+	/**
+	 * Concatenation of <code>elements</code> short strings. The elements are kept short, so the quadratic legacy
+	 * implementations still finish at 100000 elements.
+	 */
+	@State(Scope.Benchmark)
+	public static class ConcatState {
+
+		@Param({"10", "1000", "100000"})
+		public int elements;
+
+		List<String> values;
+		String[] valueArray;
+
+		@Setup
+		public void setUp() {
+			values = new ArrayList<String>(elements);
+			for (Integer token : Fixtures.tokens(elements, 1000)) {
+				values.add(String.valueOf(token));
+			}
+			valueArray = values.toArray(new String[0]);
+		}
+	}
+
+	@Benchmark
+	public String concatStrings(ConcatState state) {
+		return StringUtils.concatStrings(state.values);
+	}
+
+	@Benchmark
+	public String concatStrings_legacy(ConcatState state) {
+		return LegacyImplementations.concatStrings(state.values);
+	}
+
+	@Benchmark
+	public String concatArray(ConcatState state) {
+		return StringUtils.concatArray(state.valueArray, ", ");
+	}
+
+	@Benchmark
+	public String concatArray_legacy(ConcatState state) {
+		return LegacyImplementations.concatArray(state.valueArray, ", ");
+	}
+
+	@Benchmark
+	public List<String> replaceInAll() {
+		return StringUtils.replaceInAll(identifiers, "order", "purchase");
+	}
+
+	@Benchmark
+	public List<String> replaceInAll_map() {
+		return StringUtils.replaceInAll(identifiers, replacements);
+	}
+
+	@Benchmark
+	public CompactStringList replaceInAll_compact() {
+		return StringUtils.replaceInAll(compactIdentifiers, "order", "purchase");
+	}
+
+	/**
+	 * Longest common substrings of two log excerpts of <code>length</code> chars; the legacy implementation is
+	 * quadratic in the length, so the sizes are kept smaller than for the other benchmarks.
+	 */
+	@State(Scope.Benchmark)
+	public static class CommonSubstringState {
+
+		@Param({"200", "2000"})
+		public int length;
+
+		String first;
+		String second;
+
+		@Setup
+		public void setUp() {
+			String log = Fixtures.log(length / 40 + 2);
+			first = log.substring(0, length);
+			List<String> lines = new ArrayList<String>();
+			for (String line : log.split("\n")) {
+				lines.add(0, line);
+			}
+			second = StringUtils.concatStrings(lines).substring(0, length);
+		}
+	}
+
+	@Benchmark
+	public String getLongestCommonSubstring(CommonSubstringState state) {
+		return StringUtils.getLongestCommonSubstring(state.first, state.second);
+	}
+
+	@Benchmark
+	public String getLongestCommonSubstring_legacy(CommonSubstringState state) {
+		return LegacyImplementations.getLongestCommonSubstring(state.first, state.second);
+	}
+
+	@Benchmark
+	public List<String> getLongestCommonSubstrings(CommonSubstringState state) {
+		return StringUtils.getLongestCommonSubstrings(state.first, state.second, 5);
+	}
+}
@@ -0,0 +1,116 @@
+package io.lemontree.utils.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.lemontree.utils.StringUtils;
+
+/**
+ * File and stream based methods of {@link StringUtils} on generated log files of <code>lines</code> lines
+ * (about 90 bytes each; the largest size exceeds the threshold for memory mapped reading).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StringUtilsFileBenchmark {
+
+	@Param({"1000", "100000", "300000"})
+	public int lines;
+
+	private Path dir;
+	private Path logFile;
+	private Path writeTarget;
+	private String log;
+	private byte[] logBytes;
+
+	@Setup
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("lemontree-bench");
+		log = Fixtures.log(lines);
+		logBytes = log.getBytes(StandardCharsets.UTF_8);
+		logFile = Fixtures.writeFile(dir.resolve("app.log"), log);
+		writeTarget = dir.resolve("out.log");
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Fixtures.delete(dir);
+	}
+
+	@Benchmark
+	public String readFileAsString_path() throws IOException {
+		return StringUtils.readFileAsString(logFile.toString());
+	}
+
+	@Benchmark
+	public String readFileAsString_file() {
+		return StringUtils.readFileAsString(logFile.toFile());
+	}
+
+	@Benchmark
+	public String readFileAsString_charset() {
+		return StringUtils.readFileAsString(logFile, StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public String readFileAsString_fileCharset() {
+		return StringUtils.readFileAsString(logFile.toFile(), StandardCharsets.ISO_8859_1);
+	}
+
+	@Benchmark
+	public String convertStreamToString() {
+		return StringUtils.convertStreamToString(new ByteArrayInputStream(logBytes));
+	}
+
+	@Benchmark
+	public String readResourceAsString() {
+		return StringUtils.readResourceAsString("META-INF/MANIFEST.MF");
+	}
+
+	@Benchmark
+	public File writeStringToFile() {
+		File file = writeTarget.toFile();
+		StringUtils.writeStringToFile(log, file);
+		return file;
+	}
+
+	@Benchmark
+	public Path writeStringToFile_charset() {
+		StringUtils.writeStringToFile(log, writeTarget, StandardCharsets.UTF_8);
+		return writeTarget;
+	}
+
+	@Benchmark
+	public Path createOrOverwriteStringFile() {
+		StringUtils.createOrOverwriteStringFile(writeTarget.toString(), log);
+		return writeTarget;
+	}
+
+	@Benchmark
+	public Path createStringFileIfNotExists() throws IOException {
+		Files.deleteIfExists(writeTarget);
+		StringUtils.createStringFileIfNotExists(writeTarget.toString(), log);
+		return writeTarget;
+	}
+}
@@ -0,0 +1,313 @@
+package io.lemontree.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes files atomically: the content is written to a temporary file in the target's directory which then replaces
+ * the target by an atomic rename. Readers and a crash therefore see either the old or the new content, never a truncated file.
+ * <br>Text is encoded straight into a pooled direct buffer (see {@link BufferPool}) and written through a <code>FileChannel</code>.
+ * <br>
+ * <br>An existing target keeps its POSIX permissions and, where the process is allowed to set them, its owner and group.
+ * A new file gets the default mode of the process (i.e. as restricted by its umask). If the target is a symbolic link,
+ * the file the link points to is replaced and the link is kept.
+ * <br>
+ * <br>If the writer is <i>durable</i>, file contents are forced to the storage device before the rename and the directory is
+ * forced after it. A {@link Batch} forces each directory only once for all files written into it.
+ * <br><b>Example:</b>
+ * <pre>
+ * AtomicFileWriter writer = new AtomicFileWriter(StandardCharsets.UTF_8, true);
+ * try (AtomicFileWriter.Batch batch = writer.batch()) {
+ *     for (Config config : configs) {
+ *         batch.write(config.getPath(), config.render());
+ *     }
+ * }
+ * </pre>
+ * Instances are immutable and may be shared between threads; a batch must only be used by one thread.
+ */
+public class AtomicFileWriter {
+
+	private final Charset charset;
+	private final boolean durable;
+
+	/**
+	 * @param charset Charset used to encode text.
+	 * @param durable Whether written files and their directories are forced to the storage device.
+	 */
+	public AtomicFileWriter(Charset charset, boolean durable) {
+		this.charset = charset;
+		this.durable = durable;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	public boolean isDurable() {
+		return durable;
+	}
+
+	/**
+	 * Atomically replaces (or creates) <code>target</code> with the encoded text.
+	 */
+	public void write(Path target, CharSequence content) throws IOException {
+		forceDirectory(replace(target, CharBuffer.wrap(content), null));
+	}
+
+	/**
+	 * Atomically replaces (or creates) <code>target</code> with the bytes.
+	 */
+	public void write(Path target, byte[] content) throws IOException {
+		forceDirectory(replace(target, null, ByteBuffer.wrap(content)));
+	}
+
+	/**
+	 * Atomically creates <code>target</code> with the encoded text unless it already exists. The complete file appears at once
+	 * (it is hard linked into place), so no reader ever sees it empty or partially written, and of concurrent callers exactly one creates it.
+	 * Where the file system does not support hard links it is moved into place, which is not atomic with respect to a concurrent creation.
+	 * @return <code>true</code> if the file was created, <code>false</code> if it already existed and was left untouched.
+	 */
+	public boolean create(Path target, CharSequence content) throws IOException {
+		if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+			return false;
+		}
+		Path temp = createTempFile(directoryOf(target), target.getFileName().toString());
+		try {
+			writeTempFile(temp, CharBuffer.wrap(content), null);
+			try {
+				Files.createLink(target, temp);
+			} catch (FileAlreadyExistsException e) {
+				return false;
+			} catch (UnsupportedOperationException | FileSystemException e) {
+				// no hard links here, e.g. FAT; a move without REPLACE_EXISTING still never exposes a partial file
+				try {
+					Files.move(temp, target);
+				} catch (FileAlreadyExistsException e2) {
+					return false;
+				}
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		forceDirectory(target);
+		return true;
+	}
+
+	/**
+	 * Starts a batch of writes. Closing the batch forces each affected directory once, if the writer is durable.
+	 */
+	public Batch batch() {
+		return new Batch();
+	}
+
+	/**
+	 * @return The file actually replaced, i.e. the target with symbolic links resolved.
+	 */
+	private Path replace(Path target, CharBuffer text, ByteBuffer bytes) throws IOException {
+		PosixFileAttributes existing = null;
+		if (Files.exists(target)) {
+			target = target.toRealPath();
+			PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+			if (view != null) {
+				existing = view.readAttributes();
+			}
+		}
+		Path temp = createTempFile(directoryOf(target), target.getFileName().toString());
+		boolean moved = false;
+		try {
+			writeTempFile(temp, text, bytes);
+			if (existing != null) {
+				copyAttributes(existing, temp);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+			moved = true;
+		} finally {
+			if (!moved) {
+				Files.deleteIfExists(temp);
+			}
+		}
+		return target;
+	}
+
+	private void writeTempFile(Path temp, CharBuffer text, ByteBuffer bytes) throws IOException {
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+			if (text != null) {
+				writeEncoded(channel, text);
+			} else {
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+			}
+			if (durable) {
+				channel.force(true);
+			}
+		}
+	}
+
+	/**
+	 * Creates an empty temporary file without explicit permissions, so it gets the default mode of the process
+	 * (unlike <code>Files.createTempFile</code>, which restricts it to the owner).
+	 */
+	private static Path createTempFile(Path dir, String fileName) throws IOException {
+		while (true) {
+			Path temp = dir.resolve("." + fileName + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+			try {
+				Files.newByteChannel(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+				return temp;
+			} catch (FileAlreadyExistsException e) {
+				// name taken, try another one
+			}
+		}
+	}
+
+	/**
+	 * Gives the new file the owner, group and permissions of the file it replaces. Owner and group are only
+	 * changed where the process is allowed to; permissions are set last, as changing the owner may reset them.
+	 */
+	private static void copyAttributes(PosixFileAttributes existing, Path temp) throws IOException {
+		PosixFileAttributeView view = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+		if (view == null) {
+			return;
+		}
+		try {
+			view.setGroup(existing.group());
+		} catch (IOException e) {
+			// not a member of the group
+		}
+		try {
+			view.setOwner(existing.owner());
+		} catch (IOException e) {
+			// only privileged processes may change the owner
+		}
+		view.setPermissions(existing.permissions());
+	}
+
+	private void writeEncoded(FileChannel channel, CharBuffer text) throws IOException {
+		CharsetEncoder encoder = charset.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ByteBuffer buffer = BufferPool.getShared().acquireDirect();
+		try {
+			while (true) {
+				CoderResult result = encoder.encode(text, buffer, true);
+				if (result.isError()) {
+					result.throwException();
+				}
+				if (result.isUnderflow()) {
+					break;
+				}
+				drain(channel, buffer);
+			}
+			while (encoder.flush(buffer).isOverflow()) {
+				drain(channel, buffer);
+			}
+			drain(channel, buffer);
+		} catch (CharacterCodingException e) {
+			throw new LagoonUtilsException("Could not encode content with charset "+charset, e);
+		} finally {
+			BufferPool.getShared().release(buffer);
+		}
+	}
+
+	private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void forceDirectory(Path target) {
+		if (durable) {
+			forceDirectories(Collections.singleton(directoryOf(target)));
+		}
+	}
+
+	/**
+	 * Persists renames within the directories. Not every platform allows opening a directory (e.g. Windows), there it is skipped.
+	 */
+	private static void forceDirectories(Set<Path> dirs) {
+		for (Path dir : dirs) {
+			try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+				channel.force(true);
+			} catch (IOException e) {
+				// directory sync not supported on this platform
+			}
+		}
+	}
+
+	private static Path directoryOf(Path target) {
+		Path dir = target.toAbsolutePath().getParent();
+		if (dir == null) {
+			throw new LagoonUtilsException("File "+target+" has no parent directory");
+		}
+		return dir;
+	}
+
+	/**
+	 * Several atomic writes whose directories are forced once when the batch is closed.
+	 * Each file is already in place when its <code>write</code> call returns.
+	 */
+	public class Batch implements Closeable {
+
+		private final Set<Path> directories = new LinkedHashSet<Path>();
+		private int count;
+
+		private Batch() {
+		}
+
+		public void write(Path target, CharSequence content) throws IOException {
+			written(replace(target, CharBuffer.wrap(content), null));
+		}
+
+		public void write(Path target, byte[] content) throws IOException {
+			written(replace(target, null, ByteBuffer.wrap(content)));
+		}
+
+		private void written(Path target) {
+			directories.add(directoryOf(target));
+			count++;
+		}
+
+		/**
+		 * @return Number of files written so far.
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		@Override
+		public void close() {
+			if (durable) {
+				forceDirectories(directories);
+			}
+			directories.clear();
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package io.lemontree.utils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free pool of equally sized I/O buffers: heap byte arrays, char arrays and direct byte buffers.
+ * Used by the stream helpers of {@link FileUtils} and {@link StringUtils} to avoid allocating a new buffer per call.
+ * <br>
+ * <br>Each buffer type is kept in a fixed number of slots. A buffer released while all slots are taken is left to the
+ * garbage collector, so the pool never holds more than <code>maxPooled</code> buffers per type.
+ * <br><b>Example:</b>
+ * <pre>
+ * byte[] buf = BufferPool.getShared().acquireBytes();
+ * try {
+ *     ...
+ * } finally {
+ *     BufferPool.getShared().release(buf);
+ * }
+ * </pre>
+ * A buffer must not be used anymore after its release.
+ */
+public class BufferPool {
+
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	private static final int DEFAULT_MAX_POOLED = 4 * Runtime.getRuntime().availableProcessors();
+
+	private static final BufferPool SHARED = new BufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED);
+
+	private final int bufferSize;
+	private final int maxPooled;
+	private final Slots<byte[]> bytes;
+	private final Slots<char[]> chars;
+	private final Slots<ByteBuffer> directBuffers;
+
+	private final AtomicLong acquired = new AtomicLong();
+	private final AtomicLong allocated = new AtomicLong();
+	private final AtomicLong released = new AtomicLong();
+	private final AtomicLong discarded = new AtomicLong();
+
+	/**
+	 * @param bufferSize Capacity of each buffer in bytes, respectively chars.
+	 * @param maxPooled Maximum number of idle buffers kept per buffer type.
+	 */
+	public BufferPool(int bufferSize, int maxPooled) {
+		if (bufferSize < 1 || maxPooled < 0) {
+			throw new LagoonUtilsException("Invalid buffer pool configuration: bufferSize="+bufferSize+", maxPooled="+maxPooled);
+		}
+		this.bufferSize = bufferSize;
+		this.maxPooled = maxPooled;
+		this.bytes = new Slots<byte[]>(maxPooled);
+		this.chars = new Slots<char[]>(maxPooled);
+		this.directBuffers = new Slots<ByteBuffer>(maxPooled);
+	}
+
+	/**
+	 * @return Pool shared by the library's stream helpers, buffers have a size of 64 KB.
+	 */
+	public static BufferPool getShared() {
+		return SHARED;
+	}
+
+	public byte[] acquireBytes() {
+		acquired.incrementAndGet();
+		byte[] buf = bytes.poll();
+		if (buf == null) {
+			allocated.incrementAndGet();
+			buf = new byte[bufferSize];
+		}
+		return buf;
+	}
+
+	public char[] acquireChars() {
+		acquired.incrementAndGet();
+		char[] buf = chars.poll();
+		if (buf == null) {
+			allocated.incrementAndGet();
+			buf = new char[bufferSize];
+		}
+		return buf;
+	}
+
+	/**
+	 * @return A cleared direct buffer.
+	 */
+	public ByteBuffer acquireDirect() {
+		acquired.incrementAndGet();
+		ByteBuffer buf = directBuffers.poll();
+		if (buf == null) {
+			allocated.incrementAndGet();
+			buf = ByteBuffer.allocateDirect(bufferSize);
+		}
+		buf.clear();
+		return buf;
+	}
+
+	public void release(byte[] buf) {
+		release(bytes, buf, buf != null && buf.length == bufferSize);
+	}
+
+	public void release(char[] buf) {
+		release(chars, buf, buf != null && buf.length == bufferSize);
+	}
+
+	public void release(ByteBuffer buf) {
+		release(directBuffers, buf, buf != null && buf.isDirect() && buf.capacity() == bufferSize);
+	}
+
+	private <T> void release(Slots<T> slots, T buf, boolean fits) {
+		if (buf == null) {
+			return;
+		}
+		released.incrementAndGet();
+		if (!fits || !slots.offer(buf)) {
+			discarded.incrementAndGet();
+		}
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	public int getMaxPooled() {
+		return maxPooled;
+	}
+
+	/**
+	 * @return Number of acquire calls.
+	 */
+	public long getAcquireCount() {
+		return acquired.get();
+	}
+
+	/**
+	 * @return Number of acquire calls that had to allocate a new buffer.
+	 */
+	public long getAllocationCount() {
+		return allocated.get();
+	}
+
+	/**
+	 * @return Number of release calls.
+	 */
+	public long getReleaseCount() {
+		return released.get();
+	}
+
+	/**
+	 * @return Number of released buffers that were not pooled, because the pool was full or the buffer didn't fit.
+	 */
+	public long getDiscardCount() {
+		return discarded.get();
+	}
+
+	/**
+	 * @return Number of idle buffers currently held, all types together.
+	 */
+	public int getPooledCount() {
+		return bytes.count() + chars.count() + directBuffers.count();
+	}
+
+	@Override
+	public String toString() {
+		return "BufferPool[bufferSize=" + bufferSize + ", pooled=" + getPooledCount() + ", acquired=" + getAcquireCount()
+				+ ", allocated=" + getAllocationCount() + ", discarded=" + getDiscardCount() + "]";
+	}
+
+	/**
+	 * Fixed number of slots, each either empty or holding an idle buffer. Threads start probing at
+	 * different slots to keep contention low.
+	 */
+	private static class Slots<T> {
+
+		private final AtomicReferenceArray<T> slots;
+
+		Slots(int size) {
+			slots = new AtomicReferenceArray<T>(size);
+		}
+
+		T poll() {
+			int size = slots.length();
+			int start = probeStart(size);
+			for (int i = 0; i < size; i++) {
+				int idx = (start + i) % size;
+				if (slots.get(idx) != null) {
+					T buf = slots.getAndSet(idx, null);
+					if (buf != null) {
+						return buf;
+					}
+				}
+			}
+			return null;
+		}
+
+		boolean offer(T buf) {
+			int size = slots.length();
+			int start = probeStart(size);
+			for (int i = 0; i < size; i++) {
+				int idx = (start + i) % size;
+				if (slots.get(idx) == null && slots.compareAndSet(idx, null, buf)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		int count() {
+			int count = 0;
+			for (int i = 0; i < slots.length(); i++) {
+				if (slots.get(i) != null) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		private static int probeStart(int size) {
+			return size == 0 ? 0 : (int) ((Thread.currentThread().getId() & 0x7fffffff) % size);
+		}
+	}
+}
@@ -1,35 +1,146 @@
 package io.lemontree.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.RandomAccess;
+import java.util.function.BiPredicate;
 
 public class CollectionUtils {
 
+	private static final OperationMetrics REMOVE_INDEXES_METRICS = UtilsMetrics.operation("CollectionUtils.removeMultipleIndexes");
+	private static final OperationMetrics INDEX_OF_SUBLIST_METRICS = UtilsMetrics.operation("CollectionUtils.indexOfSublist");
+	private static final OperationMetrics ITEMS_NOT_IN_METRICS = UtilsMetrics.operation("CollectionUtils.getItemsNotIn");
+
 	/**
 	 * Removes multiple items from a list of objects.
 	 * <br><b>Example:</b>
 	 * <br>stringList = ["a", "b" , "c", "d", "e"]
 	 * <br>removeList = [2, 4]
 	 * <br> <code>removeMultipleIndexes(stringList, removeList)</code> returns ["a", "b", "d"]
+	 * <br>
+	 * <br>The list is compacted in a single pass, see {@link #removeMultipleIndexes(List, IntBitSet)}.
+	 * <code>removeIds</code> is not modified and an index contained twice is removed once.
 	 * @param list The list where items are supposed to be removed.
 	 * @param removeIds A list containing the index values to be removed.
+	 * @throws IndexOutOfBoundsException If an index is not within the list. The list is not modified then.
 	 */
 	public static void removeMultipleIndexes(List<?> list,
 			final List<Integer> removeIds) {
-		java.util.Collections.sort(removeIds, new Comparator<Integer>() {
-			@Override
-			public int compare(Integer i1, Integer i2) {
-				return i2.compareTo(i1);
-			}
-
-		});
+		int size = list.size();
+		IntBitSet ids = new IntBitSet(size);
 		for (Integer idx : removeIds) {
-			list.remove(idx.intValue());
+			ids.add(checkIndex(idx.intValue(), size));
+		}
+		removeMultipleIndexes(list, ids);
+	}
+
+	/**
+	 * Removes the items at the given indexes from a list without boxing the indexes.
+	 * @see #removeMultipleIndexes(List, IntBitSet)
+	 */
+	public static void removeMultipleIndexes(List<?> list, int... removeIds) {
+		int size = list.size();
+		IntBitSet ids = new IntBitSet(size);
+		for (int idx : removeIds) {
+			ids.add(checkIndex(idx, size));
+		}
+		removeMultipleIndexes(list, ids);
+	}
+
+	/**
+	 * Removes the items at the given indexes from a list without boxing the indexes.
+	 * @see #removeMultipleIndexes(List, IntBitSet)
+	 */
+	public static void removeMultipleIndexes(List<?> list, IntList removeIds) {
+		int size = list.size();
+		IntBitSet ids = new IntBitSet(size);
+		for (int i = 0; i < removeIds.size(); i++) {
+			ids.add(checkIndex(removeIds.get(i), size));
+		}
+		removeMultipleIndexes(list, ids);
+	}
+
+	/**
+	 * Removes the items at all indexes contained in <code>removeIds</code> from a list.
+	 * <br>An <code>ArrayList</code> is compacted in a single pass moving every kept item at most once, so removing
+	 * k of n items costs O(n) instead of O(n*k) for removing them one by one. Other random access lists
+	 * (e.g. <code>CopyOnWriteArrayList</code>) get their kept items after the first removed index copied and
+	 * replaced with one <code>clear</code> and one <code>addAll</code>; other lists are traversed once with a
+	 * <code>ListIterator</code>.
+	 * @param list The list where items are supposed to be removed.
+	 * @param removeIds The index values to be removed.
+	 * @throws IndexOutOfBoundsException If an index is not within the list. The list is not modified then.
+	 * @throws UnsupportedOperationException If the list does not support removal, e.g. a fixed-size list.
+	 * The list is not modified then.
+	 */
+	public static void removeMultipleIndexes(List<?> list, IntBitSet removeIds) {
+		int max = removeIds.max();
+		if (max < 0) {
+			return;
+		}
+		if (max >= list.size()) {
+			throw new IndexOutOfBoundsException("Index: "+max+", Size: "+list.size());
+		}
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		int size = list.size();
+		compact(list, removeIds);
+		if (UtilsMetrics.ENABLED) {
+			REMOVE_INDEXES_METRICS.record(start, size, 0);
+		}
+	}
+
+	/**
+	 * Rejects an index before it is added to an {@link IntBitSet}, which would otherwise grow to hold it.
+	 */
+	private static int checkIndex(int index, int size) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		}
+		return index;
+	}
+
+	private static <T> void compact(List<T> list, IntBitSet removeIds) {
+		int first = removeIds.nextSetBit(0);
+		int size = list.size();
+		if (list instanceof ArrayList) {
+			int write = first;
+			for (int read = first + 1; read < size; read++) {
+				if (!removeIds.contains(read)) {
+					list.set(write++, list.get(read));
+				}
+			}
+			list.subList(write, size).clear();
+			return;
+		}
+		if (list instanceof RandomAccess) {
+			// set() may be unsupported or copy the whole array, so only clear() and addAll() touch the list
+			List<T> kept = new ArrayList<T>(size - first - removeIds.size());
+			for (int read = first + 1; read < size; read++) {
+				if (!removeIds.contains(read)) {
+					kept.add(list.get(read));
+				}
+			}
+			list.subList(first, size).clear();
+			list.addAll(kept);
+			return;
+		}
+		ListIterator<T> it = list.listIterator(first);
+		int index = first;
+		for (int i = first; i >= 0; i = removeIds.nextSetBit(i + 1)) {
+			while (index < i) {
+				it.next();
+				index++;
+			}
+			it.next();
+			it.remove();
+			index++;
 		}
 	}
 
@@ -40,6 +151,7 @@ public class CollectionUtils {
 	 * <br><code>checkForEqualityOnAllValues(["a", "a", "z"])</code> returns false
 	 * @param values A collection of objects to be checked on equality.
 	 * @return true - If all items are equal. <br>false - if at least two objects in the collections are not equal
+	 * @see ParallelCollectionUtils#checkForEqualityOnAllValues(Collection)
 	 */
 	public static boolean checkForEqualityOnAllValues(Collection<?> values) {
 		Object o = values.iterator().next();
@@ -61,9 +173,7 @@ public class CollectionUtils {
 	 * @return
 	 */
 	public static List<?> removeItems(List<?> items, List<?> removings) {
-		List<?> sublist = copyList(items);
-		sublist.removeAll(removings);
-		return sublist;
+		return SetOperations.difference(items, removings);
 	}
 
 	/**
@@ -71,13 +181,10 @@ public class CollectionUtils {
 	 * new list.
 	 * @param items List of items to be copied into a new list.
 	 * @return new java.util.List containing objects from input List
+	 * @see ParallelCollectionUtils#listView(List)
 	 */
 	public static <T> List<T> copyList(List<T> items) {
-		List<T> copy = new ArrayList<T>();
-		for (T o : items) {
-			copy.add(o);
-		}
-		return copy;
+		return new ArrayList<T>(items);
 	}
 
 	/**
@@ -105,6 +212,9 @@ public class CollectionUtils {
 	 * <br>listA = ["a", "b", "c", "d", "e"]
 	 * <br>listB = ["b", "c", "d"]
 	 * <br><code>indexOfSublist(listB, listA)</code>returns 1;
+	 * <br>
+	 * <br>Runs in linear time, see {@link SequenceMatcher}. An empty sublist is found at index 0.
+	 * Use a <code>SequenceMatcher</code> directly to search the same sublist in many lists.
 	 * @param sublist The sublist to be detected in a parent /  containing list.
 	 * @param parent The containing List of the sublist.
 	 * @return index of the first occurrence of the sublist within the parent / containing list.
@@ -112,30 +222,53 @@ public class CollectionUtils {
 	 */
 	public static int indexOfSublist(List<?> sublist,
 			List<?> parent) {
-		
-		boolean isSublist = false;
-		Object o = sublist.get(0);
-		List<?> lookUp = copyList(parent);
-		int startIndex = 0;
-		int tempIndex = -1;
-		while((tempIndex=lookUp.indexOf(o))>-1 && tempIndex+sublist.size()<=lookUp.size() && !isSublist){
-			if(sublist.size()==1){
-				isSublist = true;
-			}
-			for(int i=1;i<sublist.size();i++){
-				if(!sublist.get(i).equals(lookUp.get(tempIndex+i))){
-					break;
-				}else if(i==sublist.size()-1){
-					isSublist = true;
-				}
-			}
-			lookUp = lookUp.subList(tempIndex+1, lookUp.size());
-			startIndex += tempIndex;
-		}
-		if(!isSublist){
-			startIndex = -1;
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		int index = new SequenceMatcher<Object>(sublist).indexOf(parent);
+		if (UtilsMetrics.ENABLED) {
+			INDEX_OF_SUBLIST_METRICS.record(start, parent.size(), 0);
 		}
-		return startIndex;
+		return index;
+	}
+
+	/**
+	 * Determines the list index value of the beginning of a sublist, comparing items with a comparator
+	 * (items are equal if <code>compare</code> returns 0).
+	 * @return index of the first occurrence of the sublist within the parent or -1.
+	 */
+	public static <T> int indexOfSublist(List<? extends T> sublist,
+			List<? extends T> parent, final Comparator<? super T> comparator) {
+		return new SequenceMatcher<T>(sublist, new BiPredicate<T, T>() {
+			@Override
+			public boolean test(T a, T b) {
+				return comparator.compare(a, b) == 0;
+			}
+		}).indexOf(parent);
+	}
+
+	/**
+	 * Determines the list index value of the beginning of the last occurrence of a sublist.
+	 * <br><b>Example:</b>
+	 * <br>listA = ["a", "b", "a", "b"]
+	 * <br>listB = ["a", "b"]
+	 * <br><code>lastIndexOfSublist(listB, listA)</code>returns 2;
+	 * @return index of the last occurrence of the sublist within the parent or -1.
+	 */
+	public static int lastIndexOfSublist(List<?> sublist,
+			List<?> parent) {
+		return new SequenceMatcher<Object>(sublist).lastIndexOf(parent);
+	}
+
+	/**
+	 * Determines the list index values of the beginnings of all (possibly overlapping) occurrences of a sublist.
+	 * <br><b>Example:</b>
+	 * <br>listA = ["a", "a", "a"]
+	 * <br>listB = ["a", "a"]
+	 * <br><code>indexesOfSublist(listB, listA)</code>returns [0, 1];
+	 * @return Ascending start indexes, an empty array if the sublist is not contained in parent.
+	 */
+	public static int[] indexesOfSublist(List<?> sublist,
+			List<?> parent) {
+		return new SequenceMatcher<Object>(sublist).indexesOf(parent, true);
 	}
 	
 	/**
@@ -150,11 +283,25 @@ public class CollectionUtils {
 	 */
 	public static List<?> removeIndexRange(List<?> list,
 			int startIndex, int endIndex) {
-		List<?> workList = copyList(list);
-		List sublist = new ArrayList();
-		sublist.addAll(workList.subList(0, startIndex));
-		sublist.addAll(workList.subList(endIndex+1, workList.size()));
-		return sublist;
+		List<Object> out = new ArrayList<Object>(Math.max(0, list.size() - (endIndex - startIndex + 1)));
+		out.addAll(list.subList(0, startIndex));
+		out.addAll(list.subList(endIndex+1, list.size()));
+		return out;
+	}
+
+	/**
+	 * Removes a range of items from the list itself instead of creating a new list.
+	 * Shifts the tail only once (e.g. <code>ArrayList.removeRange</code>).
+	 * <br><b>Example:</b>
+	 * <br>list = ["a","b","c","d"]
+	 * <br><code>removeIndexRangeInPlace(list, 1, 2)</code> changes list to ["a", "d"]
+	 * @param list List where item index range is to be removed.
+	 * @param startIndex Item position to start removal.
+	 * @param endIndex Item position to end removal (inclusive).
+	 */
+	public static void removeIndexRangeInPlace(List<?> list,
+			int startIndex, int endIndex) {
+		list.subList(startIndex, endIndex+1).clear();
 	}
 
 	/**
@@ -162,6 +309,7 @@ public class CollectionUtils {
 	 * @param obj
 	 * @param list
 	 * @return number of occurrences of objects equal to <code>obj</code> within list <code>list</code>
+	 * @see ParallelCollectionUtils#count(Object, Collection)
 	 */
 	public static int count(Object obj, List<?> list) {
 		int count = 0;
@@ -194,6 +342,7 @@ public class CollectionUtils {
 	 * @param listB
 	 * @return <b>true</b> if the size of listA equals the size of list listB and each item in listA equals the item at the same index position in listB
 	 * <br><b>false</b> if the size of listA does not equal the size of list listB or if not each item in listA equals the item at the same index position in listB
+	 * @see ParallelCollectionUtils#equalsAll(List, List)
 	 */
 	public static boolean equalsAll(List<?> listA, List<?> listB) {
 		if(listA.size()==listB.size()){
@@ -216,17 +365,16 @@ public class CollectionUtils {
 	 * @param lookupItems
 	 * @param mustNotEqualItems
 	 * @return New list containing all items from <code>lookupItems</code> that are not contained in <code>mustNotEqualItems</code>
+	 * @see SetOperations#difference(Collection, Collection)
 	 */
 	public static List<?> getItemsNotIn(List<?> lookupItems,
 			List<?> mustNotEqualItems) {
-		
-		List<Object> filtered = new ArrayList<Object>();
-		for(Object lookup:lookupItems){
-			if(!mustNotEqualItems.contains(lookup)){
-				filtered.add(lookup);
-			}
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		List<?> items = SetOperations.difference(lookupItems, mustNotEqualItems);
+		if (UtilsMetrics.ENABLED) {
+			ITEMS_NOT_IN_METRICS.record(start, lookupItems.size() + mustNotEqualItems.size(), 0);
 		}
-		return filtered;
+		return items;
 	}
 
 	/**
@@ -300,13 +448,10 @@ public class CollectionUtils {
 	 * Puts the values of an array object and puts them into a <code>java.util.List</code>
 	 * @param iterable Array object to be converted to a <code>java.util.List</code>
 	 * @return List containing the same items contained in param <code>iterable</code>
+	 * @see ParallelCollectionUtils#listView(Object[])
 	 */
 	public static <T> List<T> createListFromIterable(T[] iterable){
-		List<T> out = new ArrayList<T>();
-		for(T item:iterable){
-			out.add(item);
-		}
-		return out;
+		return new ArrayList<T>(Arrays.asList(iterable));
 	}
 	
 	/**
@@ -315,11 +460,7 @@ public class CollectionUtils {
 	 * @return List containing the same items contained in param <code>collection</code>
 	 */
 	public static <T> List<T> createListFromCollection(Collection<T> collection){
-		List<T> out = new ArrayList<T>();
-		for(T item:collection){
-			out.add(item);
-		}
-		return out;
+		return new ArrayList<T>(collection);
 	}
 
 	public static void print(List<?> values) {
@@ -333,12 +474,12 @@ public class CollectionUtils {
 		}
 	}
 
+	/**
+	 * Appends all items of <code>toBeAdded</code> to <code>all</code> that are not yet contained in it.
+	 * @see SetOperations#addAllMissing(List, Collection)
+	 */
 	public static <T> void addAllIfNotContains(List<T> all, List<T> toBeAdded ) {
-		for(T o : toBeAdded){
-			if(!all.contains(o)){
-				all.add(o);
-			}
-		}
+		SetOperations.addAllMissing(all, toBeAdded);
 	}
 
 	public static <T> List<T> getLast(List<T> shows, int itemsLength) {
@@ -0,0 +1,456 @@
+package io.lemontree.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Append-only list of strings stored as UTF-8 bytes in large shared byte arrays, indexed by offsets.
+ * Compared to a <code>List&lt;String&gt;</code> it saves the object header, the array header and the UTF-16 backing
+ * array of every string: an ASCII string of n chars takes n + 12 bytes instead of about 2n + 56 bytes.
+ * <br>
+ * <br>{@link #get(int)} returns a lightweight <code>CharSequence</code> view on the bytes. ASCII strings are read
+ * without decoding, other strings are decoded when their chars are accessed. The lookups {@link #indexOf(Object)},
+ * {@link #contains(Object)} and {@link #count(CharSequence)} as well as {@link #distinct()}, {@link #replaceAll(String, String)}
+ * and {@link #copy()} work on the UTF-8 bytes and never decode.
+ * Lookups compare content, so <code>list.contains("abc")</code> works although the items aren't <code>String</code>s.
+ * <br><b>Example:</b>
+ * <pre>
+ * CompactStringList names = new CompactStringList();
+ * for (Row row : rows) {
+ *     names.add(row.getName());
+ * }
+ * int count = StringUtils.countOccurrenceInList(names, "Lemon");
+ * CompactStringList unique = StringUtils.getDistinctValues(names);
+ * </pre>
+ * Unpaired surrogates are encoded as '?'. Items can be appended, but not changed or removed.
+ * Not thread safe; item views stay valid while the list grows.
+ */
+public class CompactStringList extends AbstractList<CharSequence> implements RandomAccess {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+	private static final int NON_ASCII = 1 << 31;
+	private static final int LENGTH_MASK = ~NON_ASCII;
+
+	private byte[][] chunks = new byte[4][];
+	private int chunkCount;
+	/** Index of the chunk new items are appended to, -1 before the first item. */
+	private int currentChunk = -1;
+	private int currentFill;
+
+	/** Chunk index (high 32 bits) and offset within the chunk (low 32 bits) of every item. */
+	private long[] addresses;
+	/** Byte length of every item, the sign bit marks items with non ASCII chars. */
+	private int[] lengths;
+	private int size;
+	private long byteCount;
+
+	public CompactStringList() {
+		this(16);
+	}
+
+	public CompactStringList(int initialCapacity) {
+		int capacity = Math.max(initialCapacity, 1);
+		this.addresses = new long[capacity];
+		this.lengths = new int[capacity];
+	}
+
+	public CompactStringList(Collection<? extends CharSequence> values) {
+		this(values.size());
+		for (CharSequence value : values) {
+			add(value);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return Number of UTF-8 bytes of all items.
+	 */
+	public long getByteCount() {
+		return byteCount;
+	}
+
+	/**
+	 * Appends a value. ASCII values are copied char by char, others are encoded to UTF-8 once.
+	 */
+	@Override
+	public boolean add(CharSequence value) {
+		int length = value.length();
+		boolean ascii = true;
+		for (int i = 0; i < length && ascii; i++) {
+			ascii = value.charAt(i) < 0x80;
+		}
+		if (ascii) {
+			int offset = reserve(length);
+			byte[] chunk = chunks[chunkOf(addresses[size])];
+			for (int i = 0; i < length; i++) {
+				chunk[offset + i] = (byte) value.charAt(i);
+			}
+			commit(length, true);
+		} else {
+			byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+			appendBytes(bytes, 0, bytes.length, false);
+		}
+		return true;
+	}
+
+	private void appendBytes(byte[] bytes, int from, int length, boolean ascii) {
+		int offset = reserve(length);
+		System.arraycopy(bytes, from, chunks[chunkOf(addresses[size])], offset, length);
+		commit(length, ascii);
+	}
+
+	/**
+	 * Reserves space for the next item's bytes and stores its address.
+	 * Items larger than a chunk get a chunk of their own.
+	 * @return Offset of the item within its chunk.
+	 */
+	private int reserve(int length) {
+		if (size == addresses.length) {
+			int capacity = addresses.length + (addresses.length >> 1) + 1;
+			addresses = Arrays.copyOf(addresses, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+		}
+		if (length > CHUNK_SIZE) {
+			addresses[size] = address(addChunk(new byte[length]), 0);
+			return 0;
+		}
+		if (currentChunk < 0 || currentFill + length > CHUNK_SIZE) {
+			currentChunk = addChunk(new byte[CHUNK_SIZE]);
+			currentFill = 0;
+		}
+		int offset = currentFill;
+		currentFill += length;
+		addresses[size] = address(currentChunk, offset);
+		return offset;
+	}
+
+	private void commit(int length, boolean ascii) {
+		lengths[size++] = ascii ? length : length | NON_ASCII;
+		byteCount += length;
+		modCount++;
+	}
+
+	private int addChunk(byte[] chunk) {
+		if (chunkCount == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunks.length * 2);
+		}
+		chunks[chunkCount] = chunk;
+		return chunkCount++;
+	}
+
+	private static long address(int chunk, int offset) {
+		return ((long) chunk << 32) | offset;
+	}
+
+	private static int chunkOf(long address) {
+		return (int) (address >>> 32);
+	}
+
+	private static int offsetOf(long address) {
+		return (int) address;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		}
+	}
+
+	/**
+	 * @return A view on the item's bytes. It is only equal to views of other <code>CompactStringList</code>s,
+	 * use {@link Utf8Sequence#contentEquals(CharSequence)} or <code>toString()</code> to compare it with other char sequences.
+	 */
+	@Override
+	public Utf8Sequence get(int index) {
+		checkIndex(index);
+		long address = addresses[index];
+		int length = lengths[index];
+		return new Utf8Sequence(chunks[chunkOf(address)], offsetOf(address), length & LENGTH_MASK, length >= 0);
+	}
+
+	/**
+	 * @return The item decoded as <code>String</code>.
+	 */
+	public String getString(int index) {
+		return get(index).toString();
+	}
+
+	@Override
+	public int indexOf(Object value) {
+		if (!(value instanceof CharSequence)) {
+			return -1;
+		}
+		byte[] bytes = encode((CharSequence) value);
+		for (int i = 0; i < size; i++) {
+			if (equalsBytes(i, bytes, 0, bytes.length)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object value) {
+		if (!(value instanceof CharSequence)) {
+			return -1;
+		}
+		byte[] bytes = encode((CharSequence) value);
+		for (int i = size - 1; i >= 0; i--) {
+			if (equalsBytes(i, bytes, 0, bytes.length)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) > -1;
+	}
+
+	/**
+	 * @return Number of items with the same content as <code>value</code>.
+	 */
+	public int count(CharSequence value) {
+		byte[] bytes = encode(value);
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (equalsBytes(i, bytes, 0, bytes.length)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return New list containing a copy of all items.
+	 */
+	public CompactStringList copy() {
+		CompactStringList out = new CompactStringList(size);
+		for (int i = 0; i < size; i++) {
+			out.appendItem(this, i);
+		}
+		return out;
+	}
+
+	private void appendItem(CompactStringList source, int index) {
+		long address = source.addresses[index];
+		int length = source.lengths[index];
+		appendBytes(source.chunks[chunkOf(address)], offsetOf(address), length & LENGTH_MASK, length >= 0);
+	}
+
+	/**
+	 * @return New list containing the first occurrence of every item in order. Items are hashed by their bytes.
+	 */
+	public CompactStringList distinct() {
+		CompactStringList out = new CompactStringList();
+		int[] table = new int[Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1];
+		Arrays.fill(table, -1);
+		int mask = table.length - 1;
+		for (int i = 0; i < size; i++) {
+			long address = addresses[i];
+			byte[] chunk = chunks[chunkOf(address)];
+			int offset = offsetOf(address);
+			int length = lengths[i] & LENGTH_MASK;
+			int slot = hash(chunk, offset, length) & mask;
+			while (table[slot] > -1 && !out.equalsBytes(table[slot], chunk, offset, length)) {
+				slot = (slot + 1) & mask;
+			}
+			if (table[slot] == -1) {
+				table[slot] = out.size;
+				out.appendItem(this, i);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Replaces all occurrences of <code>find</code> by <code>replace</code> in every item like <code>String.replace</code>.
+	 * The bytes are searched directly, which is correct since UTF-8 encoded chars never match within other chars.
+	 * @return New list containing the replaced items.
+	 */
+	public CompactStringList replaceAll(String find, String replace) {
+		CompactStringList out = new CompactStringList(size);
+		if (find.isEmpty()) {
+			for (int i = 0; i < size; i++) {
+				out.add(getString(i).replace(find, replace));
+			}
+			return out;
+		}
+		byte[] f = find.getBytes(StandardCharsets.UTF_8);
+		byte[] r = replace.getBytes(StandardCharsets.UTF_8);
+		boolean replaceAscii = r.length == replace.length();
+		IntList matches = new IntList();
+		for (int i = 0; i < size; i++) {
+			long address = addresses[i];
+			byte[] chunk = chunks[chunkOf(address)];
+			int offset = offsetOf(address);
+			int length = lengths[i] & LENGTH_MASK;
+			matches.clear();
+			int end = offset + length - f.length;
+			for (int pos = offset; pos <= end; pos++) {
+				if (regionMatches(chunk, pos, f, 0, f.length)) {
+					matches.add(pos);
+					pos += f.length - 1;
+				}
+			}
+			if (matches.isEmpty()) {
+				out.appendItem(this, i);
+				continue;
+			}
+			int outLength = length + matches.size() * (r.length - f.length);
+			int outOffset = out.reserve(outLength);
+			byte[] target = out.chunks[chunkOf(out.addresses[out.size])];
+			int read = offset;
+			for (int m = 0; m < matches.size(); m++) {
+				int match = matches.get(m);
+				System.arraycopy(chunk, read, target, outOffset, match - read);
+				outOffset += match - read;
+				System.arraycopy(r, 0, target, outOffset, r.length);
+				outOffset += r.length;
+				read = match + f.length;
+			}
+			System.arraycopy(chunk, read, target, outOffset, offset + length - read);
+			out.commit(outLength, lengths[i] >= 0 && replaceAscii);
+		}
+		return out;
+	}
+
+	private boolean equalsBytes(int index, byte[] bytes, int from, int length) {
+		if ((lengths[index] & LENGTH_MASK) != length) {
+			return false;
+		}
+		long address = addresses[index];
+		return regionMatches(chunks[chunkOf(address)], offsetOf(address), bytes, from, length);
+	}
+
+	private static boolean regionMatches(byte[] a, int aFrom, byte[] b, int bFrom, int length) {
+		for (int i = 0; i < length; i++) {
+			if (a[aFrom + i] != b[bFrom + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(byte[] bytes, int from, int length) {
+		int h = 0;
+		for (int i = from; i < from + length; i++) {
+			h = 31 * h + bytes[i];
+		}
+		return h ^ (h >>> 16);
+	}
+
+	private static byte[] encode(CharSequence value) {
+		return value.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Read only view on the UTF-8 bytes of an item.
+	 * <code>hashCode</code> is the same as the one of the equal <code>String</code>.
+	 */
+	public static final class Utf8Sequence implements CharSequence {
+
+		private final byte[] bytes;
+		private final int offset;
+		private final int byteLength;
+		private final boolean ascii;
+		private String decoded;
+
+		Utf8Sequence(byte[] bytes, int offset, int byteLength, boolean ascii) {
+			this.bytes = bytes;
+			this.offset = offset;
+			this.byteLength = byteLength;
+			this.ascii = ascii;
+		}
+
+		@Override
+		public int length() {
+			return ascii ? byteLength : toString().length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (ascii) {
+				if (index < 0 || index >= byteLength) {
+					throw new StringIndexOutOfBoundsException(index);
+				}
+				return (char) bytes[offset + index];
+			}
+			return toString().charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (ascii) {
+				if (start < 0 || end > byteLength || start > end) {
+					throw new StringIndexOutOfBoundsException("start "+start+", end "+end+", length "+byteLength);
+				}
+				return new Utf8Sequence(bytes, offset + start, end - start, true);
+			}
+			return toString().subSequence(start, end);
+		}
+
+		/**
+		 * @return Number of UTF-8 bytes.
+		 */
+		public int getByteLength() {
+			return byteLength;
+		}
+
+		/**
+		 * @return true if the chars of <code>other</code> equal the chars of this sequence.
+		 */
+		public boolean contentEquals(CharSequence other) {
+			if (ascii) {
+				if (other.length() != byteLength) {
+					return false;
+				}
+				for (int i = 0; i < byteLength; i++) {
+					if (other.charAt(i) != bytes[offset + i]) {
+						return false;
+					}
+				}
+				return true;
+			}
+			return toString().contentEquals(other);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Utf8Sequence))
+				return false;
+			Utf8Sequence other = (Utf8Sequence) obj;
+			return byteLength == other.byteLength && regionMatches(bytes, offset, other.bytes, other.offset, byteLength);
+		}
+
+		@Override
+		public int hashCode() {
+			if (!ascii) {
+				return toString().hashCode();
+			}
+			int h = 0;
+			for (int i = offset; i < offset + byteLength; i++) {
+				h = 31 * h + bytes[i];
+			}
+			return h;
+		}
+
+		@Override
+		public String toString() {
+			if (decoded == null) {
+				decoded = new String(bytes, offset, byteLength, StandardCharsets.UTF_8);
+			}
+			return decoded;
+		}
+	}
+}
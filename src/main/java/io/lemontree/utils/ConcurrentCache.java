@@ -0,0 +1,247 @@
+package io.lemontree.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Bounded, thread safe cache evicting the least recently used entries, e.g. to memoize pure functions.
+ * <br>
+ * <br>The cache is bounded by the total weight of its entries, by default 1 per entry (i.e. the number of entries).
+ * A weigher can instead measure e.g. the number of chars of key and value to bound the memory used.
+ * The cache is split into up to {@value #MAX_SEGMENTS} segments, each holding an equal share of the weight and locked independently,
+ * so concurrent lookups of different keys rarely block each other. Each segment evicts its own least recently used entries. Values are loaded outside of the lock; if two threads
+ * load the same key at the same time, both compute the value and the last one is kept.
+ * <br><b>Example:</b>
+ * <pre>
+ * ConcurrentCache&lt;String, String&gt; cache = new ConcurrentCache&lt;String, String&gt;(10000);
+ * String normalized = cache.get(raw, new Function&lt;String, String&gt;() {
+ * 	public String apply(String key) {
+ * 		return normalize(key);
+ * 	}
+ * });
+ * </pre>
+ * @param <K> Key type, requires proper <code>equals</code> and <code>hashCode</code>.
+ * @param <V> Value type. <code>null</code> values are not cached.
+ */
+public class ConcurrentCache<K, V> {
+
+	private static final int MAX_SEGMENTS = 16;
+	/** With a weigher, segments are kept large enough to hold entries of varying weight. */
+	private static final long MIN_WEIGHED_SEGMENT_WEIGHT = 1024;
+
+	private final Segment<K, V>[] segments;
+	private final long maxWeight;
+	private final ToIntBiFunction<? super K, ? super V> weigher;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates a cache holding up to <code>maxSize</code> entries.
+	 */
+	public ConcurrentCache(long maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * @param maxWeight Maximum total weight of all entries. Must be greater than 0.
+	 * @param weigher Weight of an entry, at least 0. <code>null</code> to weigh every entry 1.
+	 * Entries heavier than a segment's share of <code>maxWeight</code> are not cached.
+	 */
+	public ConcurrentCache(long maxWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+		if (maxWeight < 1) {
+			throw new LagoonUtilsException("Cache size must be greater than 0.");
+		}
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		long minSegmentWeight = weigher == null ? 1 : MIN_WEIGHED_SEGMENT_WEIGHT;
+		int segmentCount = (int) Math.max(1, Math.min(MAX_SEGMENTS, Long.highestOneBit(maxWeight / minSegmentWeight)));
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Segment<K, V>[] segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+		this.segments = segments;
+		for (int i = 0; i < segmentCount; i++) {
+			long segmentWeight = maxWeight / segmentCount + (i < maxWeight % segmentCount ? 1 : 0);
+			segments[i] = new Segment<K, V>(segmentWeight);
+		}
+	}
+
+	/**
+	 * @return The cached value or <code>null</code>. Counts as hit or miss.
+	 */
+	public V get(K key) {
+		Segment<K, V> segment = segmentOf(key);
+		Entry<V> entry;
+		synchronized (segment) {
+			entry = segment.get(key);
+		}
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.value;
+	}
+
+	/**
+	 * Returns the cached value, computing and caching it with <code>loader</code> if it is missing.
+	 * @return The value, <code>null</code> only if <code>loader</code> returned <code>null</code>.
+	 */
+	public V get(K key, Function<? super K, ? extends V> loader) {
+		V value = get(key);
+		if (value == null) {
+			value = loader.apply(key);
+			put(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Caches a value, replacing a previous value of the key. Evicts the least recently used entries if the cache becomes too heavy.
+	 * A <code>null</code> value is not cached.
+	 */
+	public void put(K key, V value) {
+		if (value == null) {
+			return;
+		}
+		int weight = weigher == null ? 1 : weigher.applyAsInt(key, value);
+		if (weight < 0) {
+			throw new LagoonUtilsException("Negative weight "+weight+" of cache entry "+key);
+		}
+		Segment<K, V> segment = segmentOf(key);
+		if (weight > segment.maxWeight) {
+			return;
+		}
+		synchronized (segment) {
+			Entry<V> previous = segment.put(key, new Entry<V>(value, weight));
+			if (previous != null) {
+				segment.weight -= previous.weight;
+			}
+			segment.weight += weight;
+			Iterator<Entry<V>> eldest = segment.values().iterator();
+			while (segment.weight > segment.maxWeight) {
+				segment.weight -= eldest.next().weight;
+				eldest.remove();
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * @return The removed value or <code>null</code>.
+	 */
+	public V remove(K key) {
+		Segment<K, V> segment = segmentOf(key);
+		synchronized (segment) {
+			Entry<V> entry = segment.remove(key);
+			if (entry == null) {
+				return null;
+			}
+			segment.weight -= entry.weight;
+			return entry.value;
+		}
+	}
+
+	private Segment<K, V> segmentOf(Object key) {
+		int hash = key.hashCode();
+		hash ^= hash >>> 16;
+		return segments[(hash & 0x7fffffff) % segments.length];
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return Number of entries removed to stay within the maximum weight.
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return Share of lookups answered from the cache, 0 if there weren't any lookups.
+	 */
+	public double getHitRate() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * @return Total weight of all entries, equal to {@link #size()} without weigher.
+	 */
+	public long getWeight() {
+		long weight = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				weight += segment.weight;
+			}
+		}
+		return weight;
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Removes all entries and resets the statistics.
+	 */
+	public void clear() {
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+				segment.weight = 0;
+			}
+		}
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentCache[size=" + size() + ", weight=" + getWeight() + "/" + maxWeight + ", hitRate=" + getHitRate()
+				+ ", evictions=" + getEvictionCount() + "]";
+	}
+
+	private static class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+		private static final long serialVersionUID = 1L;
+		private final long maxWeight;
+		private long weight;
+
+		Segment(long maxWeight) {
+			super(16, 0.75f, true);
+			this.maxWeight = maxWeight;
+		}
+	}
+
+	private static class Entry<V> {
+
+		private final V value;
+		private final int weight;
+
+		Entry(V value, int weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+}
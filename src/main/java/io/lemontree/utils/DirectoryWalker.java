@@ -0,0 +1,349 @@
+package io.lemontree.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Walks a directory tree in parallel using a fork join pool; each directory is read by its own task.
+ * Files are reported while the walk is still running, either to a callback or through a stream.
+ * <br><b>Example:</b>
+ * <br><code>new DirectoryWalker(root).maxDepth(3).fileFilter(FileSystems.getDefault().getPathMatcher("glob:**.png")).list()</code>
+ * <br>returns all png files up to two directory levels below <code>root</code>
+ * <br>
+ * <br>Only non directory entries are reported, in no particular order. Directories that disappear during the walk are skipped.
+ * Other IO errors are passed to the error handler, which by default throws a {@link LagoonUtilsException}.
+ */
+public class DirectoryWalker {
+
+	private static final int QUEUE_CAPACITY = 8192;
+	private static final Path END = java.nio.file.Paths.get("");
+
+	private final Path root;
+	private int maxDepth = Integer.MAX_VALUE;
+	private boolean followLinks;
+	private PathMatcher fileFilter;
+	private PathMatcher directoryFilter;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private BiConsumer<Path, IOException> errorHandler = new BiConsumer<Path, IOException>() {
+		@Override
+		public void accept(Path path, IOException e) {
+			throw new LagoonUtilsException("Could not walk "+path, e);
+		}
+	};
+
+	public DirectoryWalker(Path root) {
+		if (!Files.isDirectory(root)) {
+			throw new LagoonUtilsException("The provided file "+root.toAbsolutePath()+" is not a directory!");
+		}
+		this.root = root;
+	}
+
+	/**
+	 * @param maxDepth Deepest level to report files from; 1 only reports the files directly within the root directory.
+	 */
+	public DirectoryWalker maxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	/**
+	 * @param followLinks Whether symbolic links are followed. Directories reached a second time, e.g. through a cycle, are skipped.
+	 */
+	public DirectoryWalker followLinks(boolean followLinks) {
+		this.followLinks = followLinks;
+		return this;
+	}
+
+	/**
+	 * @param fileFilter Only files whose path matches are reported. <code>null</code> reports all files.
+	 */
+	public DirectoryWalker fileFilter(PathMatcher fileFilter) {
+		this.fileFilter = fileFilter;
+		return this;
+	}
+
+	/**
+	 * @param directoryFilter Only directories whose path matches are descended into. <code>null</code> descends into all directories.
+	 */
+	public DirectoryWalker directoryFilter(PathMatcher directoryFilter) {
+		this.directoryFilter = directoryFilter;
+		return this;
+	}
+
+	/**
+	 * @param parallelism Number of threads reading directories. Defaults to the number of available processors.
+	 */
+	public DirectoryWalker parallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new LagoonUtilsException("Parallelism must be greater than 0.");
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * @param errorHandler Called for IO errors other than disappeared files, may be called concurrently.
+	 */
+	public DirectoryWalker onError(BiConsumer<Path, IOException> errorHandler) {
+		this.errorHandler = errorHandler;
+		return this;
+	}
+
+	/**
+	 * Walks the tree and passes each file to <code>consumer</code>. Returns when the walk is complete.
+	 * <br><b>Caution:</b> the consumer is called concurrently from several threads.
+	 */
+	public void walk(Consumer<Path> consumer) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new WalkTask(root, 0, consumer, startWalk()));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Walks the tree and collects all files.
+	 */
+	public List<Path> list() {
+		final List<Path> out = Collections.synchronizedList(new ArrayList<Path>());
+		walk(new Consumer<Path>() {
+			@Override
+			public void accept(Path path) {
+				out.add(path);
+			}
+		});
+		return new ArrayList<Path>(out);
+	}
+
+	/**
+	 * Starts the walk in the background and streams files as they are found.
+	 * The stream should be closed if it isn't consumed completely, which stops the walk.
+	 */
+	public Stream<Path> stream() {
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		final Walk walk = startWalk();
+		final BlockingQueue<Path> queue = new LinkedBlockingQueue<Path>(QUEUE_CAPACITY);
+		final Consumer<Path> enqueue = new Consumer<Path>() {
+			@Override
+			public void accept(Path path) {
+				walk.put(queue, path);
+			}
+		};
+		pool.execute(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				try {
+					new WalkTask(root, 0, enqueue, walk).invoke();
+				} catch (RuntimeException e) {
+					walk.failure = e;
+				} finally {
+					walk.put(queue, END);
+					pool.shutdown();
+				}
+			}
+		});
+		Iterator<Path> iterator = new Iterator<Path>() {
+			private Path next;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = queue.take();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						walk.cancelled = true;
+						throw new LagoonUtilsException("Interrupted while walking "+root, e);
+					}
+				}
+				if (next == END) {
+					queue.offer(END);
+					if (walk.failure != null) {
+						throw walk.failure;
+					}
+					return false;
+				}
+				return true;
+			}
+
+			@Override
+			public Path next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Path out = next;
+				next = null;
+				return out;
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+				Spliterator.NONNULL | Spliterator.DISTINCT), false)
+				.onClose(new Runnable() {
+					@Override
+					public void run() {
+						walk.cancelled = true;
+						queue.clear();
+					}
+				});
+	}
+
+	private Walk startWalk() {
+		Walk walk = new Walk();
+		if (followLinks) {
+			try {
+				walk.visitedDirectories.add(directoryKey(root, Files.readAttributes(root, BasicFileAttributes.class)));
+			} catch (IOException e) {
+				throw new LagoonUtilsException("Could not walk "+root, e);
+			}
+		}
+		return walk;
+	}
+
+	private static Object directoryKey(Path dir, BasicFileAttributes attributes) throws IOException {
+		Object key = attributes.fileKey();
+		return key == null ? dir.toRealPath() : key;
+	}
+
+	/**
+	 * State shared by all tasks of one walk.
+	 */
+	private static class Walk {
+		/** Directories already descended into, only tracked when following links. */
+		final Set<Object> visitedDirectories = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+		volatile boolean cancelled;
+		volatile RuntimeException failure;
+
+		void put(BlockingQueue<Path> queue, Path path) {
+			try {
+				while (!cancelled && !queue.offer(path, 100, TimeUnit.MILLISECONDS)) {
+					// the consumer is slower than the walk, wait
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancelled = true;
+			}
+		}
+	}
+
+	private class WalkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path dir;
+		private final int depth;
+		private final Consumer<Path> consumer;
+		private final Walk walk;
+
+		WalkTask(Path dir, int depth, Consumer<Path> consumer, Walk walk) {
+			this.dir = dir;
+			this.depth = depth;
+			this.consumer = consumer;
+			this.walk = walk;
+		}
+
+		@Override
+		protected void compute() {
+			List<WalkTask> subdirs = new ArrayList<WalkTask>();
+			LinkOption[] linkOptions = followLinks ? new LinkOption[0] : new LinkOption[] {LinkOption.NOFOLLOW_LINKS};
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+				walkEntries(entries, linkOptions, subdirs);
+				if (walk.cancelled) {
+					return;
+				}
+			} catch (NoSuchFileException e) {
+				return;
+			} catch (IOException e) {
+				errorHandler.accept(dir, e);
+			}
+			// the directory stream is closed before descending, keeping the number of open handles low
+			ForkJoinTask.invokeAll(subdirs);
+		}
+
+		/**
+		 * Passes the files to the consumer and collects the subdirectories to descend into.
+		 * @throws IOException Also if reading the next entry fails, e.g. because the directory was deleted meanwhile.
+		 */
+		private void walkEntries(DirectoryStream<Path> entries, LinkOption[] linkOptions, List<WalkTask> subdirs) throws IOException {
+			try {
+				for (Path entry : entries) {
+					if (walk.cancelled) {
+						return;
+					}
+					BasicFileAttributes attributes = readAttributes(entry, linkOptions);
+					if (attributes == null) {
+						continue;
+					}
+					if (attributes.isDirectory()) {
+						if (depth + 1 < maxDepth && (directoryFilter == null || directoryFilter.matches(entry))
+								&& isFirstVisit(entry, attributes)) {
+							subdirs.add(new WalkTask(entry, depth + 1, consumer, walk));
+						}
+					} else if (fileFilter == null || fileFilter.matches(entry)) {
+						consumer.accept(entry);
+					}
+				}
+			} catch (DirectoryIteratorException e) {
+				throw e.getCause();
+			}
+		}
+
+		/**
+		 * @return The attributes of the entry, those of the link itself if it can't be followed (e.g. a dangling link,
+		 * reported as a file like <code>Files.walk</code> does) or <code>null</code> if the entry was deleted meanwhile.
+		 */
+		private BasicFileAttributes readAttributes(Path entry, LinkOption[] linkOptions) throws IOException {
+			try {
+				return Files.readAttributes(entry, BasicFileAttributes.class, linkOptions);
+			} catch (NoSuchFileException e) {
+				if (!followLinks) {
+					return null;
+				}
+			} catch (IOException e) {
+				if (!followLinks) {
+					throw e;
+				}
+			}
+			try {
+				return Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			} catch (NoSuchFileException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * Prevents endless cycles and duplicate visits when links are followed.
+		 */
+		private boolean isFirstVisit(Path entry, BasicFileAttributes attributes) throws IOException {
+			return !followLinks || walk.visitedDirectories.add(directoryKey(entry, attributes));
+		}
+	}
+}
@@ -0,0 +1,348 @@
+package io.lemontree.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Single pass scanner detecting all strings encapsulated by a left and a right delimiter.
+ * Works like {@link StringUtils#getEncapsulatedStrings(String, String, String, boolean)} but
+ * consumes a <code>Reader</code>, a <code>CharSequence</code> (e.g. a <code>CharBuffer</code>) or a
+ * memory mapped file char by char. Only the currently open match is buffered, so memory is bounded
+ * by the maximum match length (by default {@value #DEFAULT_MAX_MATCH_LENGTH} chars) instead of the input size.
+ * Longer matches, e.g. after a left delimiter that is never closed, are skipped up to their right delimiter
+ * keeping only as many chars as needed to detect it.
+ * <br><b>Example:</b>
+ * <br>content = "a[b]c[d]"
+ * <br><code>new EncapsulatedStringScanner("[", "]", false).findAll(content)</code> returns ["b", "d"]
+ * <br>
+ * <br>Instances are immutable and may be shared between threads.
+ */
+public class EncapsulatedStringScanner {
+
+	/**
+	 * Default maximum length of a match including its delimiters.
+	 */
+	public static final int DEFAULT_MAX_MATCH_LENGTH = 8 * 1024 * 1024;
+
+	private static final int READ_BUFFER_SIZE = 8192;
+	private static final int MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final String from;
+	private final String to;
+	private final boolean includeBorders;
+	private final String escape;
+	private final int maxMatchLength;
+
+	/**
+	 * @param from Left delimiter.
+	 * @param to Right delimiter.
+	 * @param includeBorders Whether the delimiters are part of the reported matches.
+	 */
+	public EncapsulatedStringScanner(String from, String to, boolean includeBorders) {
+		this(from, to, includeBorders, null);
+	}
+
+	/**
+	 * @param from Left delimiter.
+	 * @param to Right delimiter.
+	 * @param includeBorders Whether the delimiters are part of the reported matches.
+	 * @param escape Right delimiters preceded by this sequence are ignored. May be <code>null</code>.
+	 */
+	public EncapsulatedStringScanner(String from, String to, boolean includeBorders, String escape) {
+		this(from, to, includeBorders, escape, DEFAULT_MAX_MATCH_LENGTH);
+	}
+
+	/**
+	 * @param from Left delimiter.
+	 * @param to Right delimiter.
+	 * @param includeBorders Whether the delimiters are part of the reported matches.
+	 * @param escape Right delimiters preceded by this sequence are ignored. May be <code>null</code>.
+	 * @param maxMatchLength Maximum length of a match including its delimiters. Longer matches are skipped, not reported.
+	 */
+	public EncapsulatedStringScanner(String from, String to, boolean includeBorders, String escape, int maxMatchLength) {
+		if (StringUtils.isNullOrEmpty(from) || StringUtils.isNullOrEmpty(to)) {
+			throw new LagoonUtilsException("Delimiters must neither be null nor empty.");
+		}
+		if (maxMatchLength < from.length() + to.length()) {
+			throw new LagoonUtilsException("Maximum match length "+maxMatchLength+" is shorter than the delimiters.");
+		}
+		this.from = from;
+		this.to = to;
+		this.includeBorders = includeBorders;
+		this.escape = StringUtils.isNullOrEmpty(escape) ? null : escape;
+		this.maxMatchLength = maxMatchLength;
+	}
+
+	/**
+	 * Scans a char sequence and passes every match to the handler.
+	 * <br><b>Caution:</b> the <code>CharSequence</code> passed to the handler is only valid during the call,
+	 * call <code>toString()</code> to keep it.
+	 */
+	public void scan(CharSequence content, Consumer<CharSequence> handler) {
+		State state = new State(handler);
+		for (int i = 0; i < content.length(); i++) {
+			state.accept(content.charAt(i));
+		}
+	}
+
+	/**
+	 * Scans a reader until its end and passes every match to the handler. The reader is not closed.
+	 * <br><b>Caution:</b> the <code>CharSequence</code> passed to the handler is only valid during the call,
+	 * call <code>toString()</code> to keep it.
+	 */
+	public void scan(Reader reader, Consumer<CharSequence> handler) {
+		State state = new State(handler);
+		char[] buf = BufferPool.getShared().acquireChars();
+		try {
+			int n;
+			while ((n = reader.read(buf)) != -1) {
+				for (int i = 0; i < n; i++) {
+					state.accept(buf[i]);
+				}
+			}
+		} catch (IOException e) {
+			throw new LagoonUtilsException("Could not scan reader for encapsulated strings", e);
+		} finally {
+			BufferPool.getShared().release(buf);
+		}
+	}
+
+	/**
+	 * Memory maps a file in windows, decodes it with the given charset and passes every match to the handler.
+	 * <br><b>Caution:</b> the <code>CharSequence</code> passed to the handler is only valid during the call,
+	 * call <code>toString()</code> to keep it.
+	 */
+	public void scan(Path file, Charset charset, Consumer<CharSequence> handler) {
+		State state = new State(handler);
+		CharsetDecoder decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer chars = CharBuffer.allocate(READ_BUFFER_SIZE);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long pos = 0;
+			while (pos < size) {
+				long windowSize = Math.min(MAPPED_WINDOW_SIZE, size - pos);
+				boolean last = pos + windowSize == size;
+				ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, windowSize);
+				decode(decoder, window, chars, last, state);
+				if (!last && window.position() == 0) {
+					throw new LagoonUtilsException("Could not decode file "+file+" at byte "+pos);
+				}
+				pos += window.position();
+				if (last) {
+					break;
+				}
+			}
+			if (size == 0) {
+				decode(decoder, ByteBuffer.allocate(0), chars, true, state);
+			}
+			decoder.flush(chars);
+			drain(chars, state);
+		} catch (IOException e) {
+			throw new LagoonUtilsException("Could not scan file "+file+" for encapsulated strings", e);
+		}
+	}
+
+	private static void decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer chars, boolean endOfInput, State state) throws CharacterCodingException {
+		while (true) {
+			CoderResult result = decoder.decode(in, chars, endOfInput);
+			drain(chars, state);
+			if (result.isUnderflow()) {
+				return;
+			}
+			if (result.isError()) {
+				result.throwException();
+			}
+		}
+	}
+
+	private static void drain(CharBuffer chars, State state) {
+		chars.flip();
+		while (chars.hasRemaining()) {
+			state.accept(chars.get());
+		}
+		chars.clear();
+	}
+
+	/**
+	 * Collects all matches of a char sequence into a new list.
+	 */
+	public List<String> findAll(CharSequence content) {
+		final List<String> out = new ArrayList<String>();
+		scan(content, new Consumer<CharSequence>() {
+			@Override
+			public void accept(CharSequence match) {
+				out.add(match.toString());
+			}
+		});
+		return out;
+	}
+
+	/**
+	 * Lazily iterates the matches of a reader. Characters are only read on demand, the reader is not closed.
+	 */
+	public Iterator<String> iterator(Reader reader) {
+		return new ReaderIterator(reader);
+	}
+
+	/**
+	 * Lazily streams the matches of a reader. Characters are only read on demand, the reader is not closed.
+	 */
+	public Stream<String> stream(Reader reader) {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(reader),
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	private class ReaderIterator implements Iterator<String> {
+
+		private final Reader reader;
+		private final char[] buf = new char[READ_BUFFER_SIZE];
+		private int bufPos;
+		private int bufLen;
+		private boolean eof;
+		private String next;
+		private final State state = new State(new Consumer<CharSequence>() {
+			@Override
+			public void accept(CharSequence match) {
+				next = match.toString();
+			}
+		});
+
+		ReaderIterator(Reader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && !eof) {
+				if (bufPos == bufLen) {
+					try {
+						bufLen = reader.read(buf);
+					} catch (IOException e) {
+						throw new LagoonUtilsException("Could not scan reader for encapsulated strings", e);
+					}
+					bufPos = 0;
+					if (bufLen == -1) {
+						eof = true;
+						break;
+					}
+				}
+				state.accept(buf[bufPos++]);
+			}
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String out = next;
+			next = null;
+			return out;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Scan state of a single pass. While searching for the left delimiter only its length is kept,
+	 * while a match is open the match including its left delimiter is buffered. Once it exceeds the maximum
+	 * match length only the tail needed to detect an unescaped right delimiter is kept.
+	 */
+	private class State {
+
+		private final Consumer<CharSequence> handler;
+		private final StringBuilder buf = new StringBuilder();
+		private boolean open;
+		private boolean skipping;
+
+		State(Consumer<CharSequence> handler) {
+			this.handler = handler;
+		}
+
+		void accept(char c) {
+			buf.append(c);
+			if (!open) {
+				if (endsWith(buf, from)) {
+					buf.delete(0, buf.length() - from.length());
+					open = true;
+				} else if (buf.length() > 2 * from.length()) {
+					buf.delete(0, buf.length() - from.length());
+				}
+				return;
+			}
+			int endPos = buf.length() - to.length();
+			if ((skipping || endPos >= from.length()) && endsWith(buf, to) && !isEscaped(endPos)) {
+				if (!skipping) {
+					if (includeBorders) {
+						handler.accept(buf);
+					} else {
+						handler.accept(buf.subSequence(from.length(), endPos));
+					}
+				}
+				buf.setLength(0);
+				open = false;
+				skipping = false;
+				return;
+			}
+			if (buf.length() >= maxMatchLength) {
+				skipping = true;
+			}
+			if (skipping) {
+				int tail = to.length() + (escape == null ? 0 : escape.length());
+				if (buf.length() > 2 * tail) {
+					buf.delete(0, buf.length() - tail);
+				}
+			}
+		}
+
+		private boolean isEscaped(int endPos) {
+			if (escape == null || endPos < escape.length()) {
+				return false;
+			}
+			for (int i = 0; i < escape.length(); i++) {
+				if (buf.charAt(endPos - escape.length() + i) != escape.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static boolean endsWith(StringBuilder buf, String suffix) {
+		int offset = buf.length() - suffix.length();
+		if (offset < 0) {
+			return false;
+		}
+		for (int i = suffix.length() - 1; i >= 0; i--) {
+			if (buf.charAt(offset + i) != suffix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
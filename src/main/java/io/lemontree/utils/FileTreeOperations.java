@@ -0,0 +1,236 @@
+package io.lemontree.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel copy and delete of directory trees backing {@link FileUtils#copyTree(Path, Path, Executor)} and
+ * {@link FileUtils#deleteTree(Path, Executor)}. Every directory listing and every file (deletions in batches)
+ * is a task of its own; the future completes as soon as no task is pending anymore.
+ */
+class FileTreeOperations {
+
+	private static final int DELETE_BATCH_SIZE = 64;
+
+	private final Executor executor;
+	private final FileTreeReport report = new FileTreeReport();
+	private final CompletableFuture<FileTreeReport> result = new CompletableFuture<FileTreeReport>();
+	private final AtomicInteger pending = new AtomicInteger();
+
+	private FileTreeOperations(Executor executor) {
+		this.executor = executor;
+	}
+
+	static CompletableFuture<FileTreeReport> copy(final Path source, final Path target, Executor executor) {
+		final FileTreeOperations op = new FileTreeOperations(executor);
+		op.submit(new Runnable() {
+			@Override
+			public void run() {
+				op.copyDirectory(source, target);
+			}
+		});
+		return op.result;
+	}
+
+	static CompletableFuture<FileTreeReport> delete(final Path dir, Executor executor) {
+		final FileTreeOperations op = new FileTreeOperations(executor);
+		op.submit(new Runnable() {
+			@Override
+			public void run() {
+				if (Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) {
+					op.deleteDirectory(new DirectoryNode(dir, null));
+				} else {
+					op.deleteFile(dir);
+				}
+			}
+		});
+		return op.result;
+	}
+
+	private void submit(final Runnable task) {
+		pending.incrementAndGet();
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						task.run();
+					} catch (RuntimeException e) {
+						result.completeExceptionally(e);
+					} finally {
+						taskDone();
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+			taskDone();
+		}
+	}
+
+	private void taskDone() {
+		if (pending.decrementAndGet() == 0) {
+			result.complete(report);
+		}
+	}
+
+	private void copyDirectory(final Path source, final Path target) {
+		try {
+			Files.createDirectories(target);
+			report.directoryProcessed();
+		} catch (IOException e) {
+			report.failed(source, e);
+			return;
+		}
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+			for (final Path entry : entries) {
+				final Path entryTarget = target.resolve(entry.getFileName().toString());
+				final BasicFileAttributes attributes;
+				try {
+					attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				} catch (IOException e) {
+					report.failed(entry, e);
+					continue;
+				}
+				submit(new Runnable() {
+					@Override
+					public void run() {
+						if (attributes.isDirectory()) {
+							copyDirectory(entry, entryTarget);
+						} else {
+							copyFile(entry, entryTarget, attributes);
+						}
+					}
+				});
+			}
+		} catch (IOException e) {
+			report.failed(source, e);
+		} catch (DirectoryIteratorException e) {
+			report.failed(source, e.getCause());
+		}
+	}
+
+	private void copyFile(Path source, Path target, BasicFileAttributes attributes) {
+		try {
+			if (attributes.isSymbolicLink()) {
+				Files.copy(source, target, LinkOption.NOFOLLOW_LINKS, StandardCopyOption.REPLACE_EXISTING);
+				report.fileProcessed(0);
+				return;
+			}
+			try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+					FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				report.fileProcessed(FileUtils.transfer(in, out));
+			}
+		} catch (IOException e) {
+			report.failed(source, e);
+		}
+	}
+
+	private void deleteDirectory(final DirectoryNode node) {
+		List<Path> batch = new ArrayList<Path>(DELETE_BATCH_SIZE);
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(node.dir)) {
+			for (Path entry : entries) {
+				if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+					final DirectoryNode child = new DirectoryNode(entry, node);
+					node.remaining.incrementAndGet();
+					submit(new Runnable() {
+						@Override
+						public void run() {
+							deleteDirectory(child);
+						}
+					});
+				} else {
+					batch.add(entry);
+					if (batch.size() == DELETE_BATCH_SIZE) {
+						submitDeletion(batch, node);
+						batch = new ArrayList<Path>(DELETE_BATCH_SIZE);
+					}
+				}
+			}
+		} catch (NoSuchFileException e) {
+			// already gone
+		} catch (IOException e) {
+			report.failed(node.dir, e);
+		} catch (DirectoryIteratorException e) {
+			if (!(e.getCause() instanceof NoSuchFileException)) {
+				report.failed(node.dir, e.getCause());
+			}
+		}
+		if (!batch.isEmpty()) {
+			submitDeletion(batch, node);
+		}
+		childDone(node);
+	}
+
+	private void submitDeletion(final List<Path> files, final DirectoryNode node) {
+		node.remaining.incrementAndGet();
+		submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (Path file : files) {
+						deleteFile(file);
+					}
+				} finally {
+					childDone(node);
+				}
+			}
+		});
+	}
+
+	private void deleteFile(Path file) {
+		try {
+			long size = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).size();
+			Files.delete(file);
+			report.fileProcessed(size);
+		} catch (NoSuchFileException e) {
+			// already gone
+		} catch (IOException e) {
+			report.failed(file, e);
+		}
+	}
+
+	/**
+	 * Deletes a directory once all of its entries are processed, then notifies its parent.
+	 */
+	private void childDone(DirectoryNode node) {
+		while (node != null && node.remaining.decrementAndGet() == 0) {
+			try {
+				Files.delete(node.dir);
+				report.directoryProcessed();
+			} catch (NoSuchFileException e) {
+				// already gone
+			} catch (IOException e) {
+				report.failed(node.dir, e);
+			}
+			node = node.parent;
+		}
+	}
+
+	private static class DirectoryNode {
+		final Path dir;
+		final DirectoryNode parent;
+		/** Pending child tasks plus one for the listing of the directory itself. */
+		final AtomicInteger remaining = new AtomicInteger(1);
+
+		DirectoryNode(Path dir, DirectoryNode parent) {
+			this.dir = dir;
+			this.parent = parent;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package io.lemontree.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Result of a bulk operation on a directory tree, e.g. {@link FileUtils#copyTree(Path, Path)}.
+ * Counts the processed files, directories and bytes and records every path that failed together with its error.
+ * <br>The counters are updated while the operation runs, so a report may also be inspected for progress.
+ */
+public class FileTreeReport {
+
+	private final AtomicLong files = new AtomicLong();
+	private final AtomicLong directories = new AtomicLong();
+	private final AtomicLong bytes = new AtomicLong();
+	private final Map<Path, IOException> failures = new ConcurrentHashMap<Path, IOException>();
+
+	void fileProcessed(long size) {
+		files.incrementAndGet();
+		bytes.addAndGet(size);
+	}
+
+	void directoryProcessed() {
+		directories.incrementAndGet();
+	}
+
+	void failed(Path path, IOException e) {
+		failures.put(path, e);
+	}
+
+	/**
+	 * @return Number of files (including links) successfully copied or deleted.
+	 */
+	public long getFileCount() {
+		return files.get();
+	}
+
+	/**
+	 * @return Number of directories successfully created or deleted.
+	 */
+	public long getDirectoryCount() {
+		return directories.get();
+	}
+
+	/**
+	 * @return Number of bytes of all successfully copied or deleted files.
+	 */
+	public long getByteCount() {
+		return bytes.get();
+	}
+
+	/**
+	 * @return Paths that could not be processed and the corresponding error.
+	 */
+	public Map<Path, IOException> getFailures() {
+		return Collections.unmodifiableMap(failures);
+	}
+
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "FileTreeReport[files=" + getFileCount() + ", directories=" + getDirectoryCount()
+				+ ", bytes=" + getByteCount() + ", failures=" + failures.size() + "]";
+	}
+}
@@ -1,9 +1,6 @@
 package io.lemontree.utils;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FilenameFilter;
@@ -11,11 +8,36 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 public class FileUtils {
 	
+	private static final long TRANSFER_CHUNK_SIZE = 8 * 1024 * 1024;
+	/** File operations are I/O bound, so more threads than processors pay off. */
+	private static final int TREE_OPERATION_PARALLELISM = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+	private static final OperationMetrics TRANSFER_METRICS = UtilsMetrics.operation("FileUtils.transferFile");
+	private static final OperationMetrics COPY_TREE_METRICS = UtilsMetrics.operation("FileUtils.copyTree");
+	private static final OperationMetrics DELETE_TREE_METRICS = UtilsMetrics.operation("FileUtils.deleteTree");
+	
 	public static File getResourceAsTempFile(String resourceName) throws IOException, URISyntaxException{
 		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 		
@@ -33,37 +55,155 @@ public class FileUtils {
 			throw new RuntimeException("The provided file "+dir.getAbsolutePath()+" is not a directory!");
 		}
 		List<File> out = new ArrayList<File>();
-		for(File f:dir.listFiles()){
+		readFilesRecursive(dir, filter, out);
+		return out;
+	}
+	
+	private static void readFilesRecursive(File dir, FilenameFilter filter, List<File> out){
+		File[] files = dir.listFiles();
+		if(files == null){ //directory disappeared or isn't readable
+			return;
+		}
+		for(File f:files){
 			if(f.isDirectory() && !f.getName().equals(".") && !f.getName().equals("..")){
-				out.addAll(readFilesRecursive(f, filter));
+				readFilesRecursive(f, filter, out);
 			}else if ((filter==null)||
 					filter!=null && filter.accept(f, f.getName())){
 				
 				out.add(f);
 			}
 		}
-		return out;
+	}
+	
+	/**
+	 * Creates a parallel walker over all files below <code>dir</code>, to be configured before starting it.
+	 * <br><b>Example:</b>
+	 * <br><code>FileUtils.walkFiles(dir).maxDepth(2).stream()</code>
+	 * @see DirectoryWalker
+	 */
+	public static DirectoryWalker walkFiles(Path dir){
+		return new DirectoryWalker(dir);
 	}
 
 	public static void copyFile(String srcFile, String targetFile) {
 		
 		try {
-			File source = new File(srcFile);
-			
-			File target = new File(targetFile);
-			target.getParentFile().mkdirs();
-			target.createNewFile();
-			
-			InputStream in = new FileInputStream(source);
-			OutputStream out = new FileOutputStream(target);
-
-			copyStream(in, out);
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
+			transferFile(Paths.get(srcFile), Paths.get(targetFile));
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
+	
+	/**
+	 * Copies a file, creating missing parent directories of the target and overwriting an existing target.
+	 * The bytes are transferred by the operating system where possible (<code>FileChannel.transferTo</code>)
+	 * instead of being copied through the Java heap.
+	 * @return Number of bytes transferred.
+	 */
+	public static long transferFile(Path source, Path target) throws IOException {
+		Path parent = target.toAbsolutePath().getParent();
+		if(parent != null){
+			Files.createDirectories(parent);
+		}
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			long bytes = transferFile(source, out);
+			if (UtilsMetrics.ENABLED) {
+				TRANSFER_METRICS.record(start, 1, bytes);
+			}
+			return bytes;
+		}
+	}
+	
+	/**
+	 * Writes a file to a channel, e.g. a socket channel. The channel is not closed.
+	 * @return Number of bytes transferred.
+	 */
+	public static long transferFile(Path source, WritableByteChannel target) throws IOException {
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+			return transfer(in, target);
+		}
+	}
+	
+	/**
+	 * Writes a file to an output stream. The stream is neither buffered nor closed.
+	 * @return Number of bytes transferred.
+	 */
+	public static long transferFile(Path source, OutputStream target) throws IOException {
+		return transferFile(source, Channels.newChannel(target));
+	}
+	
+	/**
+	 * Transfers all remaining bytes from one channel to another. Neither channel is closed.
+	 * <br>If one side is a <code>FileChannel</code> the transfer is delegated to <code>transferTo</code> / <code>transferFrom</code>,
+	 * which lets the operating system copy without passing the bytes through user space where supported.
+	 * Otherwise, and once the operating system stops making progress (e.g. a slow pipe), the bytes are copied through
+	 * a direct buffer taken from {@link BufferPool#getShared()} until the source reports end of stream.
+	 * @return Number of bytes transferred.
+	 * @throws IllegalBlockingModeException If a channel is a <code>SelectableChannel</code> in non-blocking mode,
+	 * which could neither be waited for nor told apart from end of stream.
+	 */
+	public static long transfer(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+		requireBlocking(source);
+		requireBlocking(target);
+		if(source instanceof FileChannel){
+			FileChannel in = (FileChannel) source;
+			long start = in.position();
+			long pos = start;
+			long size = in.size();
+			while(pos < size){
+				long transferred = in.transferTo(pos, size - pos, target);
+				if(transferred <= 0){
+					size = in.size(); //file might have been truncated meanwhile
+					if(pos >= size){
+						break;
+					}
+					// no progress although bytes are left: continue with blocking reads and writes
+					in.position(pos);
+					return pos - start + copyThroughBuffer(in, target);
+				}
+				pos += transferred;
+			}
+			in.position(pos);
+			return pos - start;
+		}
+		if(target instanceof FileChannel){
+			FileChannel out = (FileChannel) target;
+			long start = out.position();
+			long pos = start;
+			long transferred;
+			// 0 means end of stream or a source without bytes available yet; only a read can tell
+			while((transferred = out.transferFrom(source, pos, TRANSFER_CHUNK_SIZE)) > 0){
+				pos += transferred;
+			}
+			out.position(pos);
+			return pos - start + copyThroughBuffer(source, out);
+		}
+		return copyThroughBuffer(source, target);
+	}
+
+	private static long copyThroughBuffer(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+		ByteBuffer buffer = BufferPool.getShared().acquireDirect();
+		try{
+			long total = 0;
+			while(source.read(buffer) != -1){
+				buffer.flip();
+				while(buffer.hasRemaining()){
+					total += target.write(buffer);
+				}
+				buffer.clear();
+			}
+			return total;
+		}finally{
+			BufferPool.getShared().release(buffer);
+		}
+	}
+
+	private static void requireBlocking(Channel channel) {
+		if(channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()){
+			throw new IllegalBlockingModeException();
+		}
+	}
 
 	public static void copyStreamToFile(String fromResource, String targetFile) {
 
@@ -97,8 +237,8 @@ public class FileUtils {
 	}
 
 	private static void copyStream(InputStream in, OutputStream out) {
+		byte[] buf = BufferPool.getShared().acquireBytes();
 		try {
-			byte[] buf = new byte[1024];
 			int len;
 			while ((len = in.read(buf)) > 0) {
 				out.write(buf, 0, len);
@@ -109,27 +249,54 @@ public class FileUtils {
 			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			BufferPool.getShared().release(buf);
 		}
 	}
 	
+	/**
+	 * Writes a file to an output stream and closes the stream afterwards.
+	 * @see #transferFile(Path, OutputStream)
+	 */
 	public static void copyFileToOutputStream(File downloadFile, OutputStream responseOutputStream) throws FileNotFoundException, IOException {
-		OutputStream output = null;
-	    InputStream input = null;
-	    
 	    try {
-	        input = new BufferedInputStream(new FileInputStream(downloadFile));
-	        output = new BufferedOutputStream(responseOutputStream);
-	        byte[] buffer = new byte[8192];
-
-	        for (int length; (length = input.read(buffer)) != -1;) {
-	            output.write(buffer, 0, length);
+	        if(!downloadFile.isFile()){
+	        	throw new FileNotFoundException(downloadFile.getAbsolutePath());
 	        }
+	        transferFile(downloadFile.toPath(), responseOutputStream);
 	    } finally {
-	        if (output != null) try { output.close(); } catch (IOException ignore) {}
-	        if (input != null) try { input.close(); } catch (IOException ignore) {}
+	        try { responseOutputStream.close(); } catch (IOException ignore) {}
 	    }
 	}
 	
+	/**
+	 * Opens a file for windowed, memory mapped iteration of its delimiter separated records.
+	 * @see MappedRecordFile
+	 */
+	public static MappedRecordFile mapRecords(Path file, byte delimiter) throws IOException {
+		return new MappedRecordFile(file, delimiter);
+	}
+	
+	/**
+	 * Streams the lines of a file through a memory mapping instead of reading the whole file into a String.
+	 * Closing the stream releases the file.
+	 * @param parallel Whether the file is split at line borders and processed by several threads.
+	 * @see MappedRecordFile#lines(Charset, boolean)
+	 */
+	public static Stream<CharSequence> mapLines(Path file, Charset charset, boolean parallel) throws IOException {
+		final MappedRecordFile records = new MappedRecordFile(file, (byte) '\n');
+		return records.lines(charset, parallel).onClose(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					records.close();
+				} catch (IOException e) {
+					throw new LagoonUtilsException("Could not close "+records, e);
+				}
+			}
+		});
+	}
+	
 	public static File streamToTempFile (InputStream in) throws IOException {
         final File tempFile = File.createTempFile("_lagoon_runtime_", ".tmp");
         tempFile.deleteOnExit();
@@ -139,6 +306,66 @@ public class FileUtils {
         return tempFile;
     }
 
+	/**
+	 * Copies the content of directory <code>source</code> into directory <code>target</code> in parallel, creating missing directories
+	 * and overwriting existing files. Symbolic links are copied as links.
+	 * <br>Errors don't stop the copy, they are collected in the returned report.
+	 * @param executor Executor running the copy tasks, one task per directory and per file.
+	 * @return Future completed with the report as soon as all files are processed.
+	 */
+	public static CompletableFuture<FileTreeReport> copyTree(Path source, Path target, Executor executor) {
+		CompletableFuture<FileTreeReport> report = FileTreeOperations.copy(source, target, executor);
+		return UtilsMetrics.ENABLED ? recordOnCompletion(report, COPY_TREE_METRICS) : report;
+	}
+	
+	/**
+	 * Same as {@link #copyTree(Path, Path, Executor)} running on a fork join pool that is created for this copy only.
+	 */
+	public static CompletableFuture<FileTreeReport> copyTree(Path source, Path target) {
+		final ForkJoinPool pool = new ForkJoinPool(TREE_OPERATION_PARALLELISM);
+		return whenCompleteShutdown(copyTree(source, target, pool), pool);
+	}
+	
+	/**
+	 * Deletes a directory tree in parallel. Symbolic links are deleted, not followed.
+	 * <br>Errors don't stop the deletion, they are collected in the returned report.
+	 * @param executor Executor running the deletion tasks, one task per directory and per batch of files.
+	 * @return Future completed with the report as soon as all files are processed.
+	 */
+	public static CompletableFuture<FileTreeReport> deleteTree(Path dir, Executor executor) {
+		CompletableFuture<FileTreeReport> report = FileTreeOperations.delete(dir, executor);
+		return UtilsMetrics.ENABLED ? recordOnCompletion(report, DELETE_TREE_METRICS) : report;
+	}
+	
+	/**
+	 * Same as {@link #deleteTree(Path, Executor)} running on a fork join pool that is created for this deletion only.
+	 */
+	public static CompletableFuture<FileTreeReport> deleteTree(Path dir) {
+		final ForkJoinPool pool = new ForkJoinPool(TREE_OPERATION_PARALLELISM);
+		return whenCompleteShutdown(deleteTree(dir, pool), pool);
+	}
+	
+	private static CompletableFuture<FileTreeReport> whenCompleteShutdown(CompletableFuture<FileTreeReport> future, final ForkJoinPool pool) {
+		return future.whenComplete(new BiConsumer<FileTreeReport, Throwable>() {
+			@Override
+			public void accept(FileTreeReport report, Throwable error) {
+				pool.shutdown();
+			}
+		});
+	}
+	
+	private static CompletableFuture<FileTreeReport> recordOnCompletion(CompletableFuture<FileTreeReport> future, final OperationMetrics metrics) {
+		final long start = System.nanoTime();
+		return future.whenComplete(new BiConsumer<FileTreeReport, Throwable>() {
+			@Override
+			public void accept(FileTreeReport report, Throwable error) {
+				if (report != null) {
+					metrics.record(start, report.getFileCount() + report.getDirectoryCount(), report.getByteCount());
+				}
+			}
+		});
+	}
+
 	/**
 	 * Recursively deletes a directory in the file system
 	 * @param dir
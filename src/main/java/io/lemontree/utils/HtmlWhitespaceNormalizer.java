@@ -0,0 +1,221 @@
+package io.lemontree.utils;
+
+/**
+ * Normalizes whitespace of text taken from HTML in a single pass: trimming, replacing NO-BREAK SPACEs (U+00A0),
+ * collapsing whitespace runs and stripping control characters, as configured with a {@link Builder}.
+ * Whitespace is everything matching the regular expression <code>\s</code> plus U+00A0,
+ * see {@link StringUtils#HTML_AWARE_WHITESPACE_EXPR}.
+ * <br>
+ * <br>Nothing is copied as long as the text doesn't change, so already normalized text is returned as the same instance
+ * without any allocation. Instances are immutable and may be shared between threads.
+ * <br><b>Example:</b>
+ * <pre>
+ * HtmlWhitespaceNormalizer normalizer = HtmlWhitespaceNormalizer.builder().trim(true).collapseWhitespace(true).build();
+ * normalizer.normalize("  Hello \n\t World ")  // returns "Hello World"
+ * </pre>
+ */
+public class HtmlWhitespaceNormalizer {
+
+	private static final char NO_BREAK_SPACE = '\u00A0';
+	/** Buffers larger than this are not kept for reuse by the current thread. */
+	private static final int MAX_REUSED_BUFFER = 64 * 1024;
+	private static final ThreadLocal<StringBuilder> BUFFERS = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(256);
+		}
+	};
+
+	private final boolean trim;
+	private final boolean replaceNoBreakSpaces;
+	private final boolean collapseWhitespace;
+	private final boolean stripControlChars;
+
+	private HtmlWhitespaceNormalizer(Builder builder) {
+		this.trim = builder.trim;
+		this.replaceNoBreakSpaces = builder.replaceNoBreakSpaces;
+		this.collapseWhitespace = builder.collapseWhitespace;
+		this.stripControlChars = builder.stripControlChars;
+	}
+
+	/**
+	 * @return Builder with all normalizations switched off.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return The normalized text, the same instance if nothing changed.
+	 */
+	public String normalize(String text) {
+		StringBuilder buffer = BUFFERS.get();
+		buffer.setLength(0);
+		if (normalize(text, buffer) == text) {
+			return text;
+		}
+		String normalized = buffer.toString();
+		if (buffer.capacity() > MAX_REUSED_BUFFER) {
+			BUFFERS.remove();
+		}
+		return normalized;
+	}
+
+	/**
+	 * Normalizes text into a buffer that can be reused for many texts.
+	 * @param out Buffer the normalized text is appended to, only if it differs from <code>text</code>.
+	 * @return <code>text</code> if nothing changed (<code>out</code> is not modified then), otherwise <code>out</code>.
+	 */
+	public CharSequence normalize(CharSequence text, StringBuilder out) {
+		int length = text.length();
+		boolean copying = false;
+		boolean content = false;
+		int runStart = -1;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (isWhitespace(c)) {
+				if (runStart < 0) {
+					runStart = i;
+				}
+			} else if (stripControlChars && Character.isISOControl(c)) {
+				if (!copying) {
+					// a pending whitespace run is written when it ends
+					out.append(text, 0, runStart < 0 ? i : runStart);
+					copying = true;
+				}
+			} else {
+				if (runStart >= 0) {
+					copying = appendRun(text, runStart, i, !content, copying, out);
+					runStart = -1;
+				}
+				if (copying) {
+					out.append(c);
+				}
+				content = true;
+			}
+		}
+		if (runStart >= 0) {
+			copying = appendRun(text, runStart, length, true, copying, out);
+		}
+		return copying ? out : text;
+	}
+
+	/**
+	 * Handles the whitespace run from <code>start</code> to <code>end</code> (possibly interrupted by stripped control chars).
+	 * @param border Whether the run is at the beginning or end of the text.
+	 * @return Whether the output differs from the text, i.e. is being copied to <code>out</code>.
+	 */
+	private boolean appendRun(CharSequence text, int start, int end, boolean border, boolean copying, StringBuilder out) {
+		if (trim && border) {
+			if (!copying) {
+				out.append(text, 0, start);
+			}
+			return true;
+		}
+		if (collapseWhitespace) {
+			if (!copying) {
+				if (end - start == 1 && text.charAt(start) == ' ') {
+					return false;
+				}
+				out.append(text, 0, start);
+			}
+			out.append(' ');
+			return true;
+		}
+		if (!copying) {
+			if (!replaceNoBreakSpaces || !containsNoBreakSpace(text, start, end)) {
+				return false;
+			}
+			out.append(text, 0, start);
+		}
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c == NO_BREAK_SPACE && replaceNoBreakSpaces) {
+				out.append(' ');
+			} else if (isWhitespace(c)) {
+				out.append(c);
+			}
+		}
+		return true;
+	}
+
+	private static boolean containsNoBreakSpace(CharSequence text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == NO_BREAK_SPACE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r' || c == NO_BREAK_SPACE;
+	}
+
+	public boolean isTrim() {
+		return trim;
+	}
+
+	public boolean isReplaceNoBreakSpaces() {
+		return replaceNoBreakSpaces;
+	}
+
+	public boolean isCollapseWhitespace() {
+		return collapseWhitespace;
+	}
+
+	public boolean isStripControlChars() {
+		return stripControlChars;
+	}
+
+	/**
+	 * Configures a {@link HtmlWhitespaceNormalizer}. All normalizations are switched off initially.
+	 */
+	public static class Builder {
+
+		private boolean trim;
+		private boolean replaceNoBreakSpaces;
+		private boolean collapseWhitespace;
+		private boolean stripControlChars;
+
+		private Builder() {
+		}
+
+		/**
+		 * Removes whitespace at the beginning and end, as {@link StringUtils#trimHtmlAware(String)}.
+		 */
+		public Builder trim(boolean trim) {
+			this.trim = trim;
+			return this;
+		}
+
+		/**
+		 * Replaces each NO-BREAK SPACE by a regular space, as {@link StringUtils#replaceNoBreakSpaces(String)}.
+		 */
+		public Builder replaceNoBreakSpaces(boolean replaceNoBreakSpaces) {
+			this.replaceNoBreakSpaces = replaceNoBreakSpaces;
+			return this;
+		}
+
+		/**
+		 * Replaces each run of whitespace, e.g. a line break followed by tabs, by a single regular space.
+		 * This also replaces single NO-BREAK SPACEs.
+		 */
+		public Builder collapseWhitespace(boolean collapseWhitespace) {
+			this.collapseWhitespace = collapseWhitespace;
+			return this;
+		}
+
+		/**
+		 * Removes control characters (<code>Character.isISOControl</code>) other than whitespace, e.g. U+0000 or U+0085.
+		 */
+		public Builder stripControlChars(boolean stripControlChars) {
+			this.stripControlChars = stripControlChars;
+			return this;
+		}
+
+		public HtmlWhitespaceNormalizer build() {
+			return new HtmlWhitespaceNormalizer(this);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package io.lemontree.utils;
+
+import java.io.IOException;
+
+/**
+ * Naming styles of identifiers and a converter between them.
+ * <br>An identifier is split into words at every character other than a letter or digit (e.g. '_', '-', ' ', '.'),
+ * before an upper case letter following a lower case letter or digit ("fooBar") and before the last letter of an
+ * upper case run followed by a lower case letter ("HTMLParser" becomes "HTML" and "Parser"). Digits stay part of their word.
+ * <br>
+ * <br>The input is read once, classifying ASCII characters by table lookup, and the words are written directly to the output
+ * without splitting into intermediate strings. Characters are case converted one by one (<code>Character.toLowerCase(char)</code>),
+ * so conversions changing the length, like 'ß' to "SS", are not applied.
+ * <br><b>Example:</b>
+ * <br><code>IdentifierCase.SNAKE.format("parseHTMLDocument2Pdf")</code> returns "parse_html_document2_pdf"
+ * <br><code>IdentifierCase.CAMEL.format("user-account id")</code> returns "userAccountId"
+ * @see IdentifierCaseConverter
+ */
+public enum IdentifierCase {
+
+	/** "userAccountId" */
+	CAMEL(WordStyle.LOWER, WordStyle.CAPITALIZED, (char) 0),
+	/** "UserAccountId" */
+	PASCAL(WordStyle.CAPITALIZED, WordStyle.CAPITALIZED, (char) 0),
+	/** "user_account_id" */
+	SNAKE(WordStyle.LOWER, WordStyle.LOWER, '_'),
+	/** "USER_ACCOUNT_ID" */
+	UPPER_SNAKE(WordStyle.UPPER, WordStyle.UPPER, '_'),
+	/** "user-account-id" */
+	KEBAB(WordStyle.LOWER, WordStyle.LOWER, '-'),
+	/** "user account id" */
+	WORDS(WordStyle.LOWER, WordStyle.LOWER, ' ');
+
+	private enum WordStyle {
+		LOWER, UPPER, CAPITALIZED
+	}
+
+	private static final byte SEPARATOR = 0;
+	private static final byte LOWER = 1;
+	private static final byte UPPER = 2;
+	private static final byte DIGIT = 3;
+	/** Non ASCII characters without case, e.g. CJK letters or surrogates. Part of a word, but never cause a word boundary. */
+	private static final byte OTHER = 4;
+
+	private static final byte[] ASCII_CLASSES = new byte[128];
+	static {
+		for (char c = 'a'; c <= 'z'; c++) {
+			ASCII_CLASSES[c] = LOWER;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			ASCII_CLASSES[c] = UPPER;
+		}
+		for (char c = '0'; c <= '9'; c++) {
+			ASCII_CLASSES[c] = DIGIT;
+		}
+	}
+
+	private final WordStyle firstWord;
+	private final WordStyle otherWords;
+	private final char separator;
+
+	IdentifierCase(WordStyle firstWord, WordStyle otherWords, char separator) {
+		this.firstWord = firstWord;
+		this.otherWords = otherWords;
+		this.separator = separator;
+	}
+
+	/**
+	 * @return The identifier converted to this style.
+	 */
+	public String format(CharSequence identifier) {
+		return appendTo(identifier, new StringBuilder(identifier.length() + 8)).toString();
+	}
+
+	/**
+	 * Appends the identifier converted to this style.
+	 * @return <code>out</code>
+	 */
+	public StringBuilder appendTo(CharSequence identifier, StringBuilder out) {
+		try {
+			appendTo(identifier, (Appendable) out);
+		} catch (IOException e) {
+			// StringBuilder doesn't throw
+			throw new LagoonUtilsException(e);
+		}
+		return out;
+	}
+
+	/**
+	 * Appends the identifier converted to this style, e.g. to a <code>Writer</code>.
+	 */
+	public void appendTo(CharSequence identifier, Appendable out) throws IOException {
+		int length = identifier.length();
+		int wordStart = -1;
+		int words = 0;
+		byte previous = SEPARATOR;
+		for (int i = 0; i < length; i++) {
+			byte current = classOf(identifier.charAt(i));
+			if (current == SEPARATOR) {
+				if (wordStart >= 0) {
+					appendWord(identifier, wordStart, i, words++, out);
+					wordStart = -1;
+				}
+			} else if (wordStart < 0) {
+				wordStart = i;
+			} else if (current == UPPER && (previous == LOWER || previous == DIGIT)) {
+				appendWord(identifier, wordStart, i, words++, out);
+				wordStart = i;
+			} else if (current == LOWER && previous == UPPER && i - 1 > wordStart) {
+				appendWord(identifier, wordStart, i - 1, words++, out);
+				wordStart = i - 1;
+			}
+			previous = current;
+		}
+		if (wordStart >= 0) {
+			appendWord(identifier, wordStart, length, words, out);
+		}
+	}
+
+	private void appendWord(CharSequence identifier, int start, int end, int index, Appendable out) throws IOException {
+		WordStyle style = firstWord;
+		if (index > 0) {
+			style = otherWords;
+			if (separator != 0) {
+				out.append(separator);
+			}
+		}
+		for (int i = start; i < end; i++) {
+			char c = identifier.charAt(i);
+			boolean upper = style == WordStyle.UPPER || (style == WordStyle.CAPITALIZED && i == start);
+			out.append(upper ? toUpperCase(c) : toLowerCase(c));
+		}
+	}
+
+	private static byte classOf(char c) {
+		if (c < 128) {
+			return ASCII_CLASSES[c];
+		}
+		if (Character.isUpperCase(c) || Character.isTitleCase(c)) {
+			return UPPER;
+		}
+		if (Character.isLowerCase(c)) {
+			return LOWER;
+		}
+		if (Character.isDigit(c)) {
+			return DIGIT;
+		}
+		if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+			return SEPARATOR;
+		}
+		return OTHER;
+	}
+
+	private static char toUpperCase(char c) {
+		if (c < 128) {
+			return ASCII_CLASSES[c] == LOWER ? (char) (c - 32) : c;
+		}
+		return Character.toUpperCase(c);
+	}
+
+	private static char toLowerCase(char c) {
+		if (c < 128) {
+			return ASCII_CLASSES[c] == UPPER ? (char) (c + 32) : c;
+		}
+		return Character.toLowerCase(c);
+	}
+}
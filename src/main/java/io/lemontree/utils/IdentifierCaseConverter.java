@@ -0,0 +1,105 @@
+package io.lemontree.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Converts identifiers between naming styles (see {@link IdentifierCase}), memoizing the results of recently
+ * converted identifiers. Meant for code generators and mapping layers converting the same few thousand names over and over.
+ * <br>
+ * <br>Every cached identifier keeps its conversions to all styles requested so far. The identifiers are kept in a
+ * {@link ConcurrentCache}, evicting the least recently used identifier when full.
+ * <br><b>Example:</b>
+ * <br><code>IdentifierCaseConverter.getShared().convert("order_item", IdentifierCase.PASCAL)</code> returns "OrderItem"
+ */
+public class IdentifierCaseConverter {
+
+	private static final int DEFAULT_MAX_SIZE = 4096;
+	private static final int CASE_COUNT = IdentifierCase.values().length;
+	private static final Function<String, AtomicReferenceArray<String>> NEW_CONVERSIONS = new Function<String, AtomicReferenceArray<String>>() {
+		@Override
+		public AtomicReferenceArray<String> apply(String identifier) {
+			return new AtomicReferenceArray<String>(CASE_COUNT);
+		}
+	};
+
+	private static final IdentifierCaseConverter SHARED = new IdentifierCaseConverter(DEFAULT_MAX_SIZE);
+
+	private final ConcurrentCache<String, AtomicReferenceArray<String>> identifiers;
+	private final int maxSize;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param maxSize Maximum number of identifiers kept. Must be greater than 0.
+	 */
+	public IdentifierCaseConverter(int maxSize) {
+		this.identifiers = new ConcurrentCache<String, AtomicReferenceArray<String>>(maxSize);
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return Converter shared by {@link StringUtils#convertIdentifierCase(String, IdentifierCase)}.
+	 */
+	public static IdentifierCaseConverter getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * @return The identifier converted to <code>target</code>, the same instance if it already has that style.
+	 */
+	public String convert(String identifier, IdentifierCase target) {
+		AtomicReferenceArray<String> conversions = identifiers.get(identifier, NEW_CONVERSIONS);
+		int style = target.ordinal();
+		String converted = conversions.get(style);
+		if (converted != null) {
+			hits.incrementAndGet();
+			return converted;
+		}
+		misses.incrementAndGet();
+		converted = target.format(identifier);
+		if (converted.equals(identifier)) {
+			converted = identifier;
+		}
+		conversions.set(style, converted);
+		return converted;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return Share of conversions answered from the cache, 0 if there weren't any conversions.
+	 */
+	public double getHitRate() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return Number of cached identifiers.
+	 */
+	public int size() {
+		return identifiers.size();
+	}
+
+	/**
+	 * Removes all identifiers and resets the hit and miss counters.
+	 */
+	public void clear() {
+		identifiers.clear();
+		hits.set(0);
+		misses.set(0);
+	}
+}
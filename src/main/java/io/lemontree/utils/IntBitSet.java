@@ -0,0 +1,220 @@
+package io.lemontree.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable set of non-negative <code>int</code> values stored as bits, one bit per possible value.
+ * Membership tests are O(1) and iteration via {@link #nextSetBit(int)} is in ascending order, which makes it
+ * a compact index set, e.g. for {@link CollectionUtils#removeMultipleIndexes(java.util.List, IntBitSet)}.
+ * <br><b>Example:</b>
+ * <pre>
+ * for (int i = set.nextSetBit(0); i &gt;= 0; i = set.nextSetBit(i + 1)) {
+ *     ...
+ * }
+ * </pre>
+ * Not thread safe.
+ */
+public class IntBitSet {
+
+	private long[] words;
+
+	public IntBitSet() {
+		this(64);
+	}
+
+	/**
+	 * @param expectedMax Largest value expected to be added; the set grows beyond if necessary.
+	 */
+	public IntBitSet(int expectedMax) {
+		this.words = new long[wordIndex(Math.max(expectedMax, 0)) + 1];
+	}
+
+	private static int wordIndex(int value) {
+		return value >>> 6;
+	}
+
+	private static void checkValue(int value) {
+		if (value < 0) {
+			throw new IndexOutOfBoundsException("Value must not be negative: "+value);
+		}
+	}
+
+	/**
+	 * @return true if the value was not contained before.
+	 */
+	public boolean add(int value) {
+		checkValue(value);
+		int w = wordIndex(value);
+		if (w >= words.length) {
+			words = Arrays.copyOf(words, Math.max(w + 1, words.length * 2));
+		}
+		long bit = 1L << value;
+		boolean added = (words[w] & bit) == 0;
+		words[w] |= bit;
+		return added;
+	}
+
+	public void addAll(int... values) {
+		for (int value : values) {
+			add(value);
+		}
+	}
+
+	/**
+	 * Adds all values <code>from ... to</code> (inclusive).
+	 */
+	public void addRange(int from, int to) {
+		checkValue(from);
+		if (to < from) {
+			return;
+		}
+		int lastWord = wordIndex(to);
+		if (lastWord >= words.length) {
+			words = Arrays.copyOf(words, Math.max(lastWord + 1, words.length * 2));
+		}
+		int firstWord = wordIndex(from);
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> (63 - (to & 63));
+		if (firstWord == lastWord) {
+			words[firstWord] |= firstMask & lastMask;
+			return;
+		}
+		words[firstWord] |= firstMask;
+		for (int w = firstWord + 1; w < lastWord; w++) {
+			words[w] = -1L;
+		}
+		words[lastWord] |= lastMask;
+	}
+
+	/**
+	 * @return true if the value was contained.
+	 */
+	public boolean remove(int value) {
+		if (!contains(value)) {
+			return false;
+		}
+		words[wordIndex(value)] &= ~(1L << value);
+		return true;
+	}
+
+	public boolean contains(int value) {
+		if (value < 0) {
+			return false;
+		}
+		int w = wordIndex(value);
+		return w < words.length && (words[w] & (1L << value)) != 0;
+	}
+
+	/**
+	 * @return The smallest value <code>&gt;= from</code> contained in the set or -1 if there is none.
+	 */
+	public int nextSetBit(int from) {
+		checkValue(from);
+		int w = wordIndex(from);
+		if (w >= words.length) {
+			return -1;
+		}
+		long word = words[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * @return The largest value contained in the set or -1 if it is empty.
+	 */
+	public int max() {
+		for (int w = words.length - 1; w >= 0; w--) {
+			if (words[w] != 0) {
+				return (w << 6) + 63 - Long.numberOfLeadingZeros(words[w]);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return Number of values contained in the set.
+	 */
+	public int size() {
+		int count = 0;
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	public boolean isEmpty() {
+		for (long word : words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(words, 0L);
+	}
+
+	/**
+	 * @return All values in ascending order.
+	 */
+	public int[] toArray() {
+		int[] out = new int[size()];
+		int n = 0;
+		for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+			out[n++] = i;
+		}
+		return out;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (int w = lastUsedWord(); w >= 0; w--) {
+			result = 31 * result + Long.hashCode(words[w]);
+		}
+		return result;
+	}
+
+	private int lastUsedWord() {
+		int w = words.length - 1;
+		while (w >= 0 && words[w] == 0) {
+			w--;
+		}
+		return w;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof IntBitSet))
+			return false;
+		IntBitSet other = (IntBitSet) obj;
+		int last = lastUsedWord();
+		if (last != other.lastUsedWord())
+			return false;
+		for (int w = 0; w <= last; w++) {
+			if (words[w] != other.words[w])
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder().append('[');
+		for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+			if (out.length() > 1) {
+				out.append(", ");
+			}
+			out.append(i);
+		}
+		return out.append(']').toString();
+	}
+}
@@ -0,0 +1,152 @@
+package io.lemontree.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive <code>int</code> values. Avoids boxing every value as <code>Integer</code>,
+ * e.g. for index lists passed to {@link CollectionUtils#removeMultipleIndexes(java.util.List, IntList)}.
+ * <br>Not thread safe.
+ */
+public class IntList {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int[] values;
+	private int size;
+
+	public IntList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public IntList(int initialCapacity) {
+		this.values = new int[Math.max(initialCapacity, 1)];
+	}
+
+	/**
+	 * Creates a list containing a copy of the values.
+	 */
+	public IntList(int... values) {
+		this.values = values.length == 0 ? new int[1] : values.clone();
+		this.size = values.length;
+	}
+
+	public void add(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, grow(size + 1));
+		}
+		values[size++] = value;
+	}
+
+	public void addAll(int... add) {
+		if (size + add.length > values.length) {
+			values = Arrays.copyOf(values, grow(size + add.length));
+		}
+		System.arraycopy(add, 0, values, size, add.length);
+		size += add.length;
+	}
+
+	private int grow(int minCapacity) {
+		int capacity = values.length + (values.length >> 1);
+		if (capacity < minCapacity || capacity < 0) {
+			capacity = minCapacity;
+		}
+		return capacity;
+	}
+
+	public int get(int index) {
+		checkIndex(index);
+		return values[index];
+	}
+
+	/**
+	 * @return The value previously at <code>index</code>.
+	 */
+	public int set(int index, int value) {
+		checkIndex(index);
+		int old = values[index];
+		values[index] = value;
+		return old;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		}
+	}
+
+	/**
+	 * @return Index of the first occurrence of <code>value</code> or -1.
+	 */
+	public int indexOf(int value) {
+		for (int i = 0; i < size; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean contains(int value) {
+		return indexOf(value) > -1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Sorts the values ascending.
+	 */
+	public void sort() {
+		Arrays.sort(values, 0, size);
+	}
+
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = 1;
+		for (int i = 0; i < size; i++) {
+			result = 31 * result + values[i];
+		}
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof IntList))
+			return false;
+		IntList other = (IntList) obj;
+		if (size != other.size)
+			return false;
+		for (int i = 0; i < size; i++) {
+			if (values[i] != other.values[i])
+				return false;
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder(size * 4 + 2).append('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				out.append(", ");
+			}
+			out.append(values[i]);
+		}
+		return out.append(']').toString();
+	}
+}
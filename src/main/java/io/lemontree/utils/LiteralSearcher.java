@@ -0,0 +1,104 @@
+package io.lemontree.utils;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed literal (non regex) substring search based on Boyer-Moore-Horspool.
+ * The skip table is built once per needle, so a searcher should be reused for many haystacks.
+ * <br><b>Example:</b>
+ * <br>searcher = new LiteralSearcher("aa")
+ * <br><code>searcher.count("aaaa", false)</code> returns 2
+ * <br><code>searcher.count("aaaa", true)</code> returns 3
+ * <br><code>searcher.indexOfAll("xaaxaa", false)</code> returns [1, 4]
+ * <br>
+ * <br>Instances are immutable and may be shared between threads.
+ */
+public class LiteralSearcher {
+
+	private static final int TABLE_SIZE = 256;
+
+	private final String needle;
+	private final char[] pattern;
+	/** Shift by the haystack char aligned with the needle's last char, indexed by its low byte. */
+	private final int[] skip = new int[TABLE_SIZE];
+
+	public LiteralSearcher(String needle) {
+		if (StringUtils.isNullOrEmpty(needle)) {
+			throw new LagoonUtilsException("Search string must neither be null nor empty.");
+		}
+		this.needle = needle;
+		this.pattern = needle.toCharArray();
+		int last = pattern.length - 1;
+		Arrays.fill(skip, pattern.length);
+		// chars sharing a low byte share a slot, keeping the smallest (safe) shift
+		for (int i = 0; i < last; i++) {
+			skip[pattern[i] & (TABLE_SIZE - 1)] = last - i;
+		}
+	}
+
+	public String getNeedle() {
+		return needle;
+	}
+
+	/**
+	 * @return Position of the first occurrence at or after <code>fromIndex</code>, -1 if there is none.
+	 */
+	public int indexOf(CharSequence haystack, int fromIndex) {
+		int last = pattern.length - 1;
+		int limit = haystack.length() - pattern.length;
+		int pos = Math.max(0, fromIndex);
+		char lastChar = pattern[last];
+		while (pos <= limit) {
+			char c = haystack.charAt(pos + last);
+			if (c == lastChar && regionMatches(haystack, pos, last)) {
+				return pos;
+			}
+			pos += skip[c & (TABLE_SIZE - 1)];
+		}
+		return -1;
+	}
+
+	public int indexOf(CharSequence haystack) {
+		return indexOf(haystack, 0);
+	}
+
+	private boolean regionMatches(CharSequence haystack, int pos, int length) {
+		for (int i = 0; i < length; i++) {
+			if (haystack.charAt(pos + i) != pattern[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Counts the occurrences of the needle.
+	 * @param overlapping Whether an occurrence may start within the previous one, e.g. "aa" is found 3 times in "aaaa" if true and 2 times if false.
+	 */
+	public int count(CharSequence haystack, boolean overlapping) {
+		int step = overlapping ? 1 : pattern.length;
+		int count = 0;
+		int pos = indexOf(haystack, 0);
+		while (pos > -1) {
+			count++;
+			pos = indexOf(haystack, pos + step);
+		}
+		return count;
+	}
+
+	/**
+	 * Detects the start positions of all occurrences of the needle.
+	 * @param overlapping Whether an occurrence may start within the previous one.
+	 * @return Ascending start positions, an empty array if there are none.
+	 */
+	public int[] indexOfAll(CharSequence haystack, boolean overlapping) {
+		int step = overlapping ? 1 : pattern.length;
+		IntList out = new IntList(8);
+		int pos = indexOf(haystack, 0);
+		while (pos > -1) {
+			out.add(pos);
+			pos = indexOf(haystack, pos + step);
+		}
+		return out.toArray();
+	}
+}
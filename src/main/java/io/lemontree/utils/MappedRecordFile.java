@@ -0,0 +1,233 @@
+package io.lemontree.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates the delimiter separated records (e.g. lines) of a file without reading the whole file onto the heap.
+ * The file is memory mapped in windows; a record crossing a window border is covered by mapping the next window
+ * from the record's start. Records are read only <code>ByteBuffer</code> slices of the mapping or, for text,
+ * decoded <code>CharSequence</code>s.
+ * <br>
+ * <br>In parallel mode the file is split at record borders, so each thread maps and iterates its own part of the file.
+ * <br><b>Example:</b>
+ * <pre>
+ * try (MappedRecordFile file = FileUtils.mapRecords(path, (byte) '\n')) {
+ *     long errors = file.lines(StandardCharsets.UTF_8, true).filter(line -&gt; line.toString().contains("ERROR")).count();
+ * }
+ * </pre>
+ * The delimiter is a single byte, so text files must use a charset that encodes it as exactly that byte (e.g. UTF-8 or ISO-8859-1 for '\n').
+ * A delimiter at the very end of the file doesn't produce an empty last record.
+ */
+public class MappedRecordFile implements Closeable {
+
+	private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+	private static final int MIN_SPLIT_SIZE = 1024 * 1024;
+	private static final int BOUNDARY_SCAN_SIZE = 8192;
+
+	private final FileChannel channel;
+	private final long size;
+	private final byte delimiter;
+	private final int windowSize;
+
+	public MappedRecordFile(Path file, byte delimiter) throws IOException {
+		this(file, delimiter, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param windowSize Number of bytes mapped at once. Windows are enlarged for records that don't fit.
+	 */
+	public MappedRecordFile(Path file, byte delimiter, int windowSize) throws IOException {
+		if (windowSize < 1) {
+			throw new LagoonUtilsException("Window size must be greater than 0.");
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.size = channel.size();
+		this.delimiter = delimiter;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * @return Size of the file in bytes when it was opened.
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Iterates all records in file order. Each record is a read only slice of the mapped file without the delimiter.
+	 */
+	public Iterator<ByteBuffer> iterator() {
+		return Spliterators.iterator(new RecordSpliterator(0, size));
+	}
+
+	/**
+	 * Streams all records, each a read only slice of the mapped file without the delimiter.
+	 * @param parallel Whether the file is split at record borders and processed by several threads.
+	 */
+	public Stream<ByteBuffer> records(boolean parallel) {
+		return StreamSupport.stream(new RecordSpliterator(0, size), parallel);
+	}
+
+	/**
+	 * Streams all records decoded as text. A carriage return before the delimiter is removed, so files with
+	 * <code>\r\n</code> line breaks are handled when <code>'\n'</code> is the delimiter.
+	 * @param parallel Whether the file is split at record borders and processed by several threads.
+	 */
+	public Stream<CharSequence> lines(final Charset charset, boolean parallel) {
+		return records(parallel).map(new Function<ByteBuffer, CharSequence>() {
+			@Override
+			public CharSequence apply(ByteBuffer record) {
+				return decode(record, charset);
+			}
+		});
+	}
+
+	private static CharBuffer decode(ByteBuffer record, Charset charset) {
+		int limit = record.limit();
+		if (limit > 0 && record.get(limit - 1) == '\r') {
+			record.limit(limit - 1);
+		}
+		return charset.decode(record);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Finds the first record border at or after <code>from</code>, i.e. the position behind the next delimiter.
+	 */
+	private long findBorder(long from, long end) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+		long pos = from;
+		while (pos < end) {
+			buf.clear();
+			buf.limit((int) Math.min(buf.capacity(), end - pos));
+			int read = channel.read(buf, pos);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buf.get(i) == delimiter) {
+					return pos + i + 1;
+				}
+			}
+			pos += read;
+		}
+		return end;
+	}
+
+	/**
+	 * Iterates the records of the byte range <code>start ... end</code>. Both ends are record borders or the file's ends.
+	 */
+	private class RecordSpliterator implements Spliterator<ByteBuffer> {
+
+		private long pos;
+		private final long end;
+		private boolean started;
+		private MappedByteBuffer window;
+		private long windowStart;
+
+		RecordSpliterator(long start, long end) {
+			this.pos = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super ByteBuffer> action) {
+			started = true;
+			if (pos >= end) {
+				return false;
+			}
+			try {
+				action.accept(nextRecord());
+			} catch (IOException e) {
+				throw new LagoonUtilsException("Could not map records of file", e);
+			}
+			return true;
+		}
+
+		private ByteBuffer nextRecord() throws IOException {
+			if (window == null || pos >= windowStart + window.limit()) {
+				map(pos, Math.min(windowSize, end - pos));
+			}
+			while (true) {
+				int from = (int) (pos - windowStart);
+				int limit = window.limit();
+				for (int i = from; i < limit; i++) {
+					if (window.get(i) == delimiter) {
+						pos = windowStart + i + 1;
+						return slice(from, i);
+					}
+				}
+				if (windowStart + limit >= end) {
+					pos = end;
+					return slice(from, limit);
+				}
+				// the record crosses the window border: map again from the record's start
+				long remapSize = Math.min(end - pos, Math.max(windowSize, 2L * (limit - from)));
+				if (remapSize > Integer.MAX_VALUE) {
+					throw new LagoonUtilsException("Record at byte "+pos+" is too large to be mapped");
+				}
+				map(pos, remapSize);
+			}
+		}
+
+		private void map(long start, long length) throws IOException {
+			window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			windowStart = start;
+		}
+
+		private ByteBuffer slice(int from, int to) {
+			ByteBuffer record = window.duplicate();
+			record.limit(to).position(from);
+			return record.slice().asReadOnlyBuffer();
+		}
+
+		@Override
+		public Spliterator<ByteBuffer> trySplit() {
+			if (started || end - pos < MIN_SPLIT_SIZE) {
+				return null;
+			}
+			long mid;
+			try {
+				mid = findBorder(pos + (end - pos) / 2, end);
+			} catch (IOException e) {
+				throw new LagoonUtilsException("Could not split records of file", e);
+			}
+			if (mid >= end) {
+				return null;
+			}
+			RecordSpliterator prefix = new RecordSpliterator(pos, mid);
+			pos = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			// number of bytes as upper bound of the number of records
+			return end - pos;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | NONNULL | IMMUTABLE;
+		}
+	}
+}
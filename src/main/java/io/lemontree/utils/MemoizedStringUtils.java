@@ -0,0 +1,177 @@
+package io.lemontree.utils;
+
+import java.util.function.BiFunction;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Memoized variants of pure {@link StringUtils} transformations, for workloads converting the same strings over and over.
+ * Every method returns the same result as its <code>StringUtils</code> counterpart, computing it only on the first call
+ * with the same arguments (as long as the result was not evicted).
+ * <br>
+ * <br>All methods share one {@link ConcurrentCache} bounded by the number of chars of the cached arguments and results
+ * (about {@value #MAX_CACHED_CHARS}), evicting the least recently used results. Short strings profit most; transformations of
+ * large strings are cheap compared to their hashing and comparison, so strings longer than {@value #MAX_ARGUMENT_LENGTH}
+ * chars are transformed without cache.
+ * <br><b>Example:</b>
+ * <br><code>MemoizedStringUtils.escapeRegExCharacters("a.b")</code> returns "a\\.b"
+ */
+public class MemoizedStringUtils {
+
+	private static final long MAX_CACHED_CHARS = 4 * 1024 * 1024;
+	private static final int MAX_ARGUMENT_LENGTH = 4096;
+
+	private static final int ESCAPE_REG_EX = 0;
+	private static final int TO_CAMEL_CASE = 1;
+	private static final int TRIM_HTML_AWARE = 2;
+	private static final int REPLACE_NO_BREAK_SPACES = 3;
+	private static final int SEPARATOR_TO_CAMEL_CASE_LOWER = 4;
+	private static final int SEPARATOR_TO_CAMEL_CASE_UPPER = 5;
+
+	private static final BiFunction<String, String, String> ESCAPE_REG_EX_FUNCTION = new BiFunction<String, String, String>() {
+		@Override
+		public String apply(String argument, String secondArgument) {
+			return StringUtils.escapeRegExCharacters(argument);
+		}
+	};
+	private static final BiFunction<String, String, String> TO_CAMEL_CASE_FUNCTION = new BiFunction<String, String, String>() {
+		@Override
+		public String apply(String argument, String secondArgument) {
+			return StringUtils.toCamelCase(argument);
+		}
+	};
+	private static final BiFunction<String, String, String> TRIM_HTML_AWARE_FUNCTION = new BiFunction<String, String, String>() {
+		@Override
+		public String apply(String argument, String secondArgument) {
+			return StringUtils.trimHtmlAware(argument);
+		}
+	};
+	private static final BiFunction<String, String, String> REPLACE_NO_BREAK_SPACES_FUNCTION = new BiFunction<String, String, String>() {
+		@Override
+		public String apply(String argument, String secondArgument) {
+			return StringUtils.replaceNoBreakSpaces(argument);
+		}
+	};
+	private static final BiFunction<String, String, String> SEPARATOR_TO_CAMEL_CASE_LOWER_FUNCTION = new BiFunction<String, String, String>() {
+		@Override
+		public String apply(String argument, String secondArgument) {
+			return StringUtils.convertSeparatorToCamelCase_LowerCaseBegin(argument, secondArgument);
+		}
+	};
+	private static final BiFunction<String, String, String> SEPARATOR_TO_CAMEL_CASE_UPPER_FUNCTION = new BiFunction<String, String, String>() {
+		@Override
+		public String apply(String argument, String secondArgument) {
+			return StringUtils.convertSeparatorToCamelCase_UpperCaseBegin(argument, secondArgument);
+		}
+	};
+
+	private static final ConcurrentCache<Call, String> CACHE = new ConcurrentCache<Call, String>(MAX_CACHED_CHARS,
+			new ToIntBiFunction<Call, String>() {
+				@Override
+				public int applyAsInt(Call call, String result) {
+					return call.argument.length() + call.secondArgument.length() + result.length() + 1;
+				}
+			});
+
+	private MemoizedStringUtils() {
+	}
+
+	/**
+	 * @return The cache shared by all methods, e.g. to read its hit rate or to clear it.
+	 */
+	public static ConcurrentCache<?, String> getCache() {
+		return CACHE;
+	}
+
+	/**
+	 * @see StringUtils#escapeRegExCharacters(String)
+	 */
+	public static String escapeRegExCharacters(String nonRegExString) {
+		return memoize(ESCAPE_REG_EX, nonRegExString, "", ESCAPE_REG_EX_FUNCTION);
+	}
+
+	/**
+	 * @see StringUtils#toCamelCase(String)
+	 */
+	public static String toCamelCase(String string) {
+		return memoize(TO_CAMEL_CASE, string, "", TO_CAMEL_CASE_FUNCTION);
+	}
+
+	/**
+	 * @see StringUtils#trimHtmlAware(String)
+	 */
+	public static String trimHtmlAware(String s) {
+		return memoize(TRIM_HTML_AWARE, s, "", TRIM_HTML_AWARE_FUNCTION);
+	}
+
+	/**
+	 * @see StringUtils#replaceNoBreakSpaces(String)
+	 */
+	public static String replaceNoBreakSpaces(String val) {
+		return memoize(REPLACE_NO_BREAK_SPACES, val, "", REPLACE_NO_BREAK_SPACES_FUNCTION);
+	}
+
+	/**
+	 * @see StringUtils#convertSeparatorToCamelCase_LowerCaseBegin(String, String)
+	 */
+	public static String convertSeparatorToCamelCase_LowerCaseBegin(String rawName, String separator) {
+		return memoize(SEPARATOR_TO_CAMEL_CASE_LOWER, rawName, separator, SEPARATOR_TO_CAMEL_CASE_LOWER_FUNCTION);
+	}
+
+	/**
+	 * @see StringUtils#convertSeparatorToCamelCase_UpperCaseBegin(String, String)
+	 */
+	public static String convertSeparatorToCamelCase_UpperCaseBegin(String rawName, String separator) {
+		return memoize(SEPARATOR_TO_CAMEL_CASE_UPPER, rawName, separator, SEPARATOR_TO_CAMEL_CASE_UPPER_FUNCTION);
+	}
+
+	/**
+	 * Returns the cached result of the transformation or computes and caches it.
+	 * Arguments longer than {@value #MAX_ARGUMENT_LENGTH} chars are transformed without cache.
+	 */
+	private static String memoize(int function, String argument, String secondArgument,
+			BiFunction<String, String, String> transformation) {
+		if (argument.length() > MAX_ARGUMENT_LENGTH) {
+			return transformation.apply(argument, secondArgument);
+		}
+		Call call = new Call(function, argument, secondArgument);
+		String result = CACHE.get(call);
+		if (result == null) {
+			result = transformation.apply(argument, secondArgument);
+			CACHE.put(call, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Cache key: the transformation and its arguments.
+	 */
+	private static class Call {
+
+		private final int function;
+		private final String argument;
+		private final String secondArgument;
+		private final int hash;
+
+		Call(int function, String argument, String secondArgument) {
+			this.function = function;
+			this.argument = argument;
+			this.secondArgument = secondArgument;
+			this.hash = (31 * function + argument.hashCode()) * 31 + secondArgument.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Call)) {
+				return false;
+			}
+			Call other = (Call) obj;
+			return function == other.function && hash == other.hash && argument.equals(other.argument)
+					&& secondArgument.equals(other.secondArgument);
+		}
+	}
+}
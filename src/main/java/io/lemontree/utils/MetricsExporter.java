@@ -0,0 +1,17 @@
+package io.lemontree.utils;
+
+/**
+ * Service provider interface publishing metrics snapshots, e.g. to a log or a monitoring system.
+ * <br>Exporters are registered with {@link UtilsMetrics#scheduleExport(MetricsExporter, long, java.util.concurrent.TimeUnit)}
+ * or, if metrics are enabled, discovered by <code>java.util.ServiceLoader</code> from
+ * <code>META-INF/services/io.lemontree.utils.MetricsExporter</code> and called every
+ * <code>lemontree.utils.metrics.exportIntervalSeconds</code> seconds (default 60).
+ * @see TextMetricsExporter
+ */
+public interface MetricsExporter {
+
+	/**
+	 * Publishes a snapshot. Called from a single background thread; exceptions are caught and don't stop later exports.
+	 */
+	void export(MetricsSnapshot snapshot) throws Exception;
+}
@@ -0,0 +1,49 @@
+package io.lemontree.utils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable copy of all operation counters at a point in time, see {@link UtilsMetrics#snapshot()}.
+ */
+public class MetricsSnapshot {
+
+	private final long timestampMillis;
+	private final Map<String, OperationMetrics.Snapshot> operations;
+
+	MetricsSnapshot(long timestampMillis, Map<String, OperationMetrics.Snapshot> operations) {
+		this.timestampMillis = timestampMillis;
+		this.operations = Collections.unmodifiableMap(operations);
+	}
+
+	/**
+	 * @return <code>System.currentTimeMillis()</code> when the snapshot was taken.
+	 */
+	public long getTimestampMillis() {
+		return timestampMillis;
+	}
+
+	/**
+	 * @return Counters of the operation or <code>null</code> if it was never called.
+	 */
+	public OperationMetrics.Snapshot get(String operation) {
+		return operations.get(operation);
+	}
+
+	/**
+	 * @return Counters of all operations called so far, ordered by name.
+	 */
+	public Collection<OperationMetrics.Snapshot> getOperations() {
+		return operations.values();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder("MetricsSnapshot[").append(timestampMillis).append(']');
+		for (OperationMetrics.Snapshot operation : operations.values()) {
+			out.append(StringUtils.LINE_BREAK).append(operation);
+		}
+		return out.toString();
+	}
+}
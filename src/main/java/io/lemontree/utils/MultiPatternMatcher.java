@@ -0,0 +1,355 @@
+package io.lemontree.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Precompiled matcher searching for many literal patterns at once (Aho-Corasick automaton).
+ * The text is walked a single time no matter how many patterns the matcher contains.
+ * <br>
+ * <br>Matches are reported leftmost first and never overlap. If several patterns start at the same
+ * position, the longest one wins. To decide this, up to the length of the longest pattern is read ahead
+ * after each match and read again behind it, so finding <i>m</i> matches in a text of length <i>n</i> costs
+ * O(n + m * longest pattern length), at worst O(n * longest pattern length); without matches a single pass of O(n).
+ * <br>
+ * <br>Transitions on ASCII chars are looked up in a table of one row per automaton state, holding a column for each distinct
+ * ASCII char of the patterns. Other chars are stored as sorted lists of the trie edges of each state and
+ * resolved through the failure links, so memory grows with the total pattern length, not with the range of chars.
+ * <br><b>Example:</b>
+ * <br>matcher = new MultiPatternMatcher("he", "hers", "is")
+ * <br><code>matcher.removeAll("this hers")</code> returns "th "
+ * <br>
+ * <br>Instances are immutable and may be shared between threads.
+ */
+public class MultiPatternMatcher {
+
+	private static final int ROOT = 0;
+	private static final int NO_MATCH = -1;
+	private static final int NONE = -1;
+	private static final int ASCII = 128;
+
+	private final String[] patterns;
+	/** Column of each ASCII char in {@link #asciiTransitions}, -1 for chars not contained in any pattern. */
+	private final int[] asciiSymbols = new int[ASCII];
+	private final int asciiAlphabetSize;
+	/** DFA transitions on ASCII chars, <code>states * asciiAlphabetSize</code>. */
+	private final int[] asciiTransitions;
+	/** Trie edges on non ASCII chars of state s are at indexes <code>otherOffsets[s]</code> (inclusive) to <code>otherOffsets[s + 1]</code>, sorted by char. */
+	private final int[] otherOffsets;
+	private final char[] otherChars;
+	private final int[] otherTargets;
+	private final int[] failure;
+	/** Number of chars matched to reach a state. */
+	private final int[] depth;
+	/** Index of the longest pattern ending in a state or {@link #NO_MATCH}. */
+	private final int[] output;
+
+	public MultiPatternMatcher(String... patterns) {
+		this(Arrays.asList(patterns));
+	}
+
+	public MultiPatternMatcher(Collection<String> patterns) {
+		this.patterns = patterns.toArray(new String[patterns.size()]);
+		Arrays.fill(asciiSymbols, -1);
+		int symbols = 0;
+		long totalLength = 0;
+		for (String pattern : this.patterns) {
+			if (StringUtils.isNullOrEmpty(pattern)) {
+				throw new LagoonUtilsException("Patterns must neither be null nor empty.");
+			}
+			totalLength += pattern.length();
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				if (c < ASCII && asciiSymbols[c] == -1) {
+					asciiSymbols[c] = symbols++;
+				}
+			}
+		}
+		this.asciiAlphabetSize = symbols;
+		long tableSize = (totalLength + 1) * Math.max(1, symbols);
+		if (tableSize > Integer.MAX_VALUE - 8) {
+			throw new LagoonUtilsException("Patterns with "+totalLength+" chars in total are too large for a MultiPatternMatcher.");
+		}
+		int maxStates = (int) totalLength + 1;
+
+		// build the trie: ASCII edges in the table, other edges in a map keyed by state and char
+		int[] ascii = new int[maxStates * symbols];
+		Arrays.fill(ascii, NONE);
+		Map<Long, Integer> otherEdges = new HashMap<Long, Integer>();
+		int[] depth = new int[maxStates];
+		int[] output = new int[maxStates];
+		Arrays.fill(output, NO_MATCH);
+		int states = 1;
+		for (int p = 0; p < this.patterns.length; p++) {
+			String pattern = this.patterns[p];
+			int state = ROOT;
+			for (int i = 0; i < pattern.length(); i++) {
+				char c = pattern.charAt(i);
+				int target;
+				if (c < ASCII) {
+					int idx = state * symbols + asciiSymbols[c];
+					if (ascii[idx] == NONE) {
+						ascii[idx] = states++;
+						depth[ascii[idx]] = depth[state] + 1;
+					}
+					target = ascii[idx];
+				} else {
+					Long key = edgeKey(state, c);
+					Integer existing = otherEdges.get(key);
+					if (existing == null) {
+						existing = states++;
+						depth[existing] = depth[state] + 1;
+						otherEdges.put(key, existing);
+					}
+					target = existing;
+				}
+				state = target;
+			}
+			if (output[state] == NO_MATCH) {
+				output[state] = p;
+			}
+		}
+
+		long[] keys = new long[otherEdges.size()];
+		int k = 0;
+		for (Long key : otherEdges.keySet()) {
+			keys[k++] = key;
+		}
+		Arrays.sort(keys);
+		this.otherOffsets = new int[states + 1];
+		this.otherChars = new char[keys.length];
+		this.otherTargets = new int[keys.length];
+		for (int e = 0; e < keys.length; e++) {
+			otherChars[e] = (char) keys[e];
+			otherTargets[e] = otherEdges.get(keys[e]);
+			otherOffsets[(int) (keys[e] >>> 16) + 1]++;
+		}
+		for (int s = 0; s < states; s++) {
+			otherOffsets[s + 1] += otherOffsets[s];
+		}
+
+		// breadth first: compute failure links and complete the ASCII table to a DFA
+		this.failure = new int[states];
+		Queue<Integer> queue = new ArrayDeque<Integer>();
+		for (int s = 0; s < symbols; s++) {
+			if (ascii[s] == NONE) {
+				ascii[s] = ROOT;
+			} else {
+				queue.add(ascii[s]);
+			}
+		}
+		for (int e = otherOffsets[ROOT]; e < otherOffsets[ROOT + 1]; e++) {
+			queue.add(otherTargets[e]);
+		}
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			if (output[state] == NO_MATCH) {
+				output[state] = output[failure[state]];
+			}
+			for (int s = 0; s < symbols; s++) {
+				int idx = state * symbols + s;
+				int fallback = ascii[failure[state] * symbols + s];
+				if (ascii[idx] == NONE) {
+					ascii[idx] = fallback;
+				} else {
+					failure[ascii[idx]] = fallback;
+					queue.add(ascii[idx]);
+				}
+			}
+			for (int e = otherOffsets[state]; e < otherOffsets[state + 1]; e++) {
+				failure[otherTargets[e]] = nextOther(failure[state], otherChars[e]);
+				queue.add(otherTargets[e]);
+			}
+		}
+		this.asciiTransitions = Arrays.copyOf(ascii, states * symbols);
+		this.depth = Arrays.copyOf(depth, states);
+		this.output = Arrays.copyOf(output, states);
+	}
+
+	private static long edgeKey(int state, char c) {
+		return ((long) state << 16) | c;
+	}
+
+	private int next(int state, char c) {
+		if (c < ASCII) {
+			int symbol = asciiSymbols[c];
+			return symbol == -1 ? ROOT : asciiTransitions[state * asciiAlphabetSize + symbol];
+		}
+		return nextOther(state, c);
+	}
+
+	/**
+	 * Follows the failure links until a state with a trie edge on <code>c</code> is found.
+	 * Only states of lower depth are visited, which are complete while the automaton is built.
+	 */
+	private int nextOther(int state, char c) {
+		while (true) {
+			int from = otherOffsets[state];
+			int to = otherOffsets[state + 1];
+			if (from < to) {
+				int e = Arrays.binarySearch(otherChars, from, to, c);
+				if (e >= 0) {
+					return otherTargets[e];
+				}
+			}
+			if (state == ROOT) {
+				return ROOT;
+			}
+			state = failure[state];
+		}
+	}
+
+	/**
+	 * @return The patterns this matcher was compiled from.
+	 */
+	public List<String> getPatterns() {
+		return Arrays.asList(patterns.clone());
+	}
+
+	/**
+	 * Checks whether at least one of the patterns is contained in <code>text</code>.
+	 */
+	public boolean containsAny(CharSequence text) {
+		int state = ROOT;
+		for (int i = 0; i < text.length(); i++) {
+			state = next(state, text.charAt(i));
+			if (output[state] != NO_MATCH) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Detects all non overlapping pattern occurrences.
+	 * @return Positions of all matches. <code>start</code> is inclusive, <code>end</code> exclusive
+	 * (as in <code>String.substring(start, end)</code>).
+	 */
+	public List<PositionRange> findAll(CharSequence text) {
+		final List<PositionRange> out = new ArrayList<PositionRange>();
+		scan(text, new MatchVisitor() {
+			@Override
+			public void visit(int start, int end, int pattern) {
+				out.add(new PositionRange(start, end));
+			}
+		});
+		return out;
+	}
+
+	/**
+	 * Removes all pattern occurrences from <code>text</code>.
+	 * @return The text without any pattern, the original instance if <code>text</code> is a String without matches.
+	 */
+	public String removeAll(CharSequence text) {
+		return replaceAll(text, (Map<String, String>) null);
+	}
+
+	/**
+	 * Replaces all pattern occurrences with the same replacement.
+	 * @return The replaced text, the original instance if <code>text</code> is a String without matches.
+	 */
+	public String replaceAll(CharSequence text, final String replacement) {
+		return replace(text, new Replacements() {
+			@Override
+			public String get(int pattern) {
+				return replacement;
+			}
+		});
+	}
+
+	/**
+	 * Replaces all pattern occurrences with the value mapped to the matched pattern.
+	 * Matches of patterns without a mapping are kept. Passing <code>null</code> as map removes all matches.
+	 * @return The replaced text, the original instance if <code>text</code> is a String without matches.
+	 */
+	public String replaceAll(CharSequence text, final Map<String, String> replacements) {
+		return replace(text, new Replacements() {
+			@Override
+			public String get(int pattern) {
+				if (replacements == null) {
+					return "";
+				}
+				String replacement = replacements.get(patterns[pattern]);
+				return replacement == null ? patterns[pattern] : replacement;
+			}
+		});
+	}
+
+	private String replace(final CharSequence text, final Replacements replacements) {
+		final StringBuilder[] out = new StringBuilder[1];
+		final int[] copied = new int[1];
+		scan(text, new MatchVisitor() {
+			@Override
+			public void visit(int start, int end, int pattern) {
+				if (out[0] == null) {
+					out[0] = new StringBuilder(text.length() + 16);
+				}
+				out[0].append(text, copied[0], start).append(replacements.get(pattern));
+				copied[0] = end;
+			}
+		});
+		if (out[0] == null) {
+			return text.toString();
+		}
+		return out[0].append(text, copied[0], text.length()).toString();
+	}
+
+	/**
+	 * Walks the text. A found candidate is only reported as soon as no other pattern can start
+	 * left of it or at the same position with a greater length; scanning then restarts behind the candidate,
+	 * reading again at most the length of the longest pattern.
+	 */
+	private void scan(CharSequence text, MatchVisitor visitor) {
+		int state = ROOT;
+		int candidateStart = -1;
+		int candidateEnd = -1;
+		int candidatePattern = NO_MATCH;
+		int length = text.length();
+		int i = 0;
+		while (true) {
+			if (i == length) {
+				if (candidatePattern == NO_MATCH) {
+					break;
+				}
+				visitor.visit(candidateStart, candidateEnd, candidatePattern);
+				i = candidateEnd;
+				state = ROOT;
+				candidatePattern = NO_MATCH;
+				continue;
+			}
+			state = next(state, text.charAt(i));
+			int pattern = output[state];
+			if (pattern != NO_MATCH) {
+				int end = i + 1;
+				int start = end - patterns[pattern].length();
+				if (candidatePattern == NO_MATCH || start < candidateStart
+						|| (start == candidateStart && end > candidateEnd)) {
+					candidateStart = start;
+					candidateEnd = end;
+					candidatePattern = pattern;
+				}
+			}
+			i++;
+			if (candidatePattern != NO_MATCH && i - depth[state] > candidateStart) {
+				visitor.visit(candidateStart, candidateEnd, candidatePattern);
+				i = candidateEnd;
+				state = ROOT;
+				candidatePattern = NO_MATCH;
+			}
+		}
+	}
+
+	private interface MatchVisitor {
+		void visit(int start, int end, int pattern);
+	}
+
+	private interface Replacements {
+		String get(int pattern);
+	}
+}
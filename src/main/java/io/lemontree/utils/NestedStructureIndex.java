@@ -0,0 +1,225 @@
+package io.lemontree.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Index of all nested structures in a document, e.g. HTML tags or brackets. The document is tokenized
+ * a single time; afterwards every enclosed region, its parent, children and siblings are available without rescanning.
+ * <br><b>Example:</b>
+ * <br>index = new NestedStructureIndex("a(b(c)d)(e)", "(", ")")
+ * <br><code>index.getRoots().size()</code> returns 2
+ * <br><code>index.getNodes().get(1).getContent(false)</code> returns "c"
+ * <br><code>index.getNodeAt(6).getContent(true)</code> returns "(b(c)d)"
+ * <br>
+ * <br>Delimiters are detected like in {@link StringUtils#getEnclosedContentInNestedStructurePositions(String, String, String, boolean)}:
+ * if an open and a close delimiter start at the same position, the close delimiter wins.
+ * Close delimiters without an open counterpart are ignored, structures that are never closed are reported by {@link Node#isClosed()}.
+ * Open and close delimiter are expected to differ.
+ */
+public class NestedStructureIndex {
+
+	private final String content;
+	private final String openString;
+	private final String closeString;
+	/** All nodes in order of their open delimiters. */
+	private final List<Node> nodes = new ArrayList<Node>();
+	private final List<Node> roots = new ArrayList<Node>();
+	private final int[] starts;
+
+	public NestedStructureIndex(String content, String openString, String closeString) {
+		if (StringUtils.isNullOrEmpty(openString) || StringUtils.isNullOrEmpty(closeString)) {
+			throw new LagoonUtilsException("Delimiters must neither be null nor empty.");
+		}
+		this.content = content;
+		this.openString = openString;
+		this.closeString = closeString;
+
+		List<Node> open = new ArrayList<Node>();
+		int pos = 0;
+		int nextOpen = content.indexOf(openString);
+		int nextClose = content.indexOf(closeString);
+		while (nextClose > -1 || nextOpen > -1) {
+			if (nextOpen > -1 && (nextClose == -1 || nextOpen < nextClose)) {
+				Node parent = open.isEmpty() ? null : open.get(open.size() - 1);
+				Node node = new Node(nodes.size(), nextOpen, parent);
+				nodes.add(node);
+				List<Node> siblings = parent == null ? roots : parent.children;
+				node.siblingIndex = siblings.size();
+				siblings.add(node);
+				open.add(node);
+				pos = nextOpen + openString.length();
+			} else {
+				if (!open.isEmpty()) {
+					open.remove(open.size() - 1).closeStart = nextClose;
+				}
+				pos = nextClose + closeString.length();
+			}
+			if (nextOpen > -1 && nextOpen < pos) {
+				nextOpen = content.indexOf(openString, pos);
+			}
+			if (nextClose > -1 && nextClose < pos) {
+				nextClose = content.indexOf(closeString, pos);
+			}
+		}
+		starts = new int[nodes.size()];
+		for (int i = 0; i < starts.length; i++) {
+			starts[i] = nodes.get(i).start;
+		}
+	}
+
+	public String getContent() {
+		return content;
+	}
+
+	/**
+	 * @return All structures in order of their open delimiters.
+	 */
+	public List<Node> getNodes() {
+		return Collections.unmodifiableList(nodes);
+	}
+
+	/**
+	 * @return Structures that are not enclosed by any other structure.
+	 */
+	public List<Node> getRoots() {
+		return Collections.unmodifiableList(roots);
+	}
+
+	/**
+	 * @return The first structure of the document, <code>null</code> if there is none.
+	 */
+	public Node getFirst() {
+		return nodes.isEmpty() ? null : nodes.get(0);
+	}
+
+	/**
+	 * Finds the innermost structure containing a position, delimiters included.
+	 * @return The innermost structure or <code>null</code> if the position isn't enclosed.
+	 */
+	public Node getNodeAt(int position) {
+		int low = 0;
+		int high = starts.length - 1;
+		int found = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= position) {
+				found = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		for (Node node = found < 0 ? null : nodes.get(found); node != null; node = node.parent) {
+			if (!node.isClosed() || position < node.getEnd()) {
+				return node;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A single structure from its open delimiter to its close delimiter.
+	 */
+	public class Node {
+
+		private final int index;
+		private final int start;
+		private final Node parent;
+		private final int depth;
+		private final List<Node> children = new ArrayList<Node>(0);
+		private int siblingIndex;
+		private int closeStart = -1;
+
+		private Node(int index, int start, Node parent) {
+			this.index = index;
+			this.start = start;
+			this.parent = parent;
+			this.depth = parent == null ? 0 : parent.depth + 1;
+		}
+
+		/**
+		 * @return Position of this structure in {@link NestedStructureIndex#getNodes()}.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return Nesting depth, 0 for structures that are not enclosed.
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		public Node getParent() {
+			return parent;
+		}
+
+		public List<Node> getChildren() {
+			return Collections.unmodifiableList(children);
+		}
+
+		/**
+		 * @return The next structure with the same parent, <code>null</code> if there is none.
+		 */
+		public Node getNextSibling() {
+			List<Node> siblings = parent == null ? roots : parent.children;
+			return siblingIndex + 1 < siblings.size() ? siblings.get(siblingIndex + 1) : null;
+		}
+
+		/**
+		 * @return The previous structure with the same parent, <code>null</code> if there is none.
+		 */
+		public Node getPreviousSibling() {
+			List<Node> siblings = parent == null ? roots : parent.children;
+			return siblingIndex > 0 ? siblings.get(siblingIndex - 1) : null;
+		}
+
+		public boolean isClosed() {
+			return closeStart > -1;
+		}
+
+		/**
+		 * @return Position of the open delimiter.
+		 */
+		public int getStart() {
+			return start;
+		}
+
+		/**
+		 * @return Position behind the close delimiter, -1 if the structure isn't closed.
+		 */
+		public int getEnd() {
+			return isClosed() ? closeStart + closeString.length() : -1;
+		}
+
+		/**
+		 * @param includeBorders Whether the delimiters are part of the range.
+		 * @return Range of this structure, end position exclusive. The end is -1 if the structure isn't closed.
+		 */
+		public PositionRange getRange(boolean includeBorders) {
+			if (includeBorders) {
+				return new PositionRange(start, getEnd());
+			}
+			return new PositionRange(start + openString.length(), closeStart);
+		}
+
+		/**
+		 * @param includeBorders Whether the delimiters are part of the content.
+		 * @return View on the enclosed content.
+		 */
+		public StringSlice getContent(boolean includeBorders) {
+			if (!isClosed()) {
+				throw new LagoonUtilsException("Nesting structure is not valid.");
+			}
+			return new StringSlice(content, getRange(includeBorders));
+		}
+
+		@Override
+		public String toString() {
+			return "Node[" + index + ", depth=" + depth + ", " + start + ".." + getEnd() + "]";
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package io.lemontree.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single instrumented operation, e.g. <code>StringUtils.readFileAsString</code>: number of calls,
+ * summed input sizes (chars or items), summed bytes processed and a latency histogram in nanoseconds.
+ * All recording is lock-free. Instances are obtained from {@link UtilsMetrics#operation(String)}.
+ */
+public class OperationMetrics {
+
+	private final String name;
+	private final LongAdder inputSize = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	OperationMetrics(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Records a finished call.
+	 * @param startNanos <code>System.nanoTime()</code> when the call started.
+	 * @param inputSize Size of the input, e.g. number of chars or list items. 0 if not applicable.
+	 * @param bytes Number of bytes read or written. 0 if not applicable.
+	 */
+	public void record(long startNanos, long inputSize, long bytes) {
+		latency.record(System.nanoTime() - startNanos);
+		this.inputSize.add(inputSize);
+		this.bytes.add(bytes);
+	}
+
+	public void reset() {
+		latency.reset();
+		inputSize.reset();
+		bytes.reset();
+	}
+
+	public Snapshot snapshot() {
+		return new Snapshot(name, inputSize.sum(), bytes.sum(), latency.snapshot());
+	}
+
+	/**
+	 * Immutable copy of an operation's counters.
+	 */
+	public static class Snapshot {
+
+		private final String name;
+		private final long inputSize;
+		private final long bytes;
+		private final LatencyHistogram.Snapshot latency;
+
+		Snapshot(String name, long inputSize, long bytes, LatencyHistogram.Snapshot latency) {
+			this.name = name;
+			this.inputSize = inputSize;
+			this.bytes = bytes;
+			this.latency = latency;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return Number of recorded calls.
+		 */
+		public long getCalls() {
+			return latency.getCount();
+		}
+
+		/**
+		 * @return Sum of the input sizes of all calls.
+		 */
+		public long getInputSize() {
+			return inputSize;
+		}
+
+		/**
+		 * @return Sum of the bytes processed by all calls.
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * @return Latencies of all calls in nanoseconds.
+		 */
+		public LatencyHistogram.Snapshot getLatency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return name + "[calls=" + getCalls() + ", inputSize=" + inputSize + ", bytes=" + bytes + ", latencyNanos={" + latency + "}]";
+		}
+	}
+}
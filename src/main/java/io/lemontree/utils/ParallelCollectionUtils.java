@@ -0,0 +1,409 @@
+package io.lemontree.utils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk operations of {@link CollectionUtils} for large collections. Collections with at least <code>parallelThreshold</code>
+ * items are split by their <code>Spliterator</code> into fork/join tasks, smaller ones are processed in the calling thread.
+ * Results that are only meant to be iterated are returned as lazy views instead of copies.
+ * <br><b>Example:</b>
+ * <pre>
+ * int errors = ParallelCollectionUtils.getShared().count(events, new Predicate&lt;Event&gt;() { ... });
+ * List&lt;String&gt; names = ParallelCollectionUtils.mappedView(users, new Function&lt;User, String&gt;() { ... });
+ * </pre>
+ * Instances are immutable and may be shared between threads. The collections must not be modified while an operation runs.
+ */
+public class ParallelCollectionUtils {
+
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 10000;
+
+	/** Minimum number of items processed by a single task. */
+	private static final int MIN_LEAF_SIZE = 1024;
+
+	private static final ParallelCollectionUtils SHARED = new ParallelCollectionUtils(DEFAULT_PARALLEL_THRESHOLD);
+
+	private final int parallelThreshold;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Runs parallel operations in the common fork/join pool.
+	 */
+	public ParallelCollectionUtils(int parallelThreshold) {
+		this(parallelThreshold, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param parallelThreshold Minimum collection size for parallel execution.
+	 * @param pool Pool running the parallel operations.
+	 */
+	public ParallelCollectionUtils(int parallelThreshold, ForkJoinPool pool) {
+		if (parallelThreshold < 1) {
+			throw new LagoonUtilsException("Parallel threshold must be greater than 0.");
+		}
+		this.parallelThreshold = parallelThreshold;
+		this.pool = pool;
+	}
+
+	/**
+	 * @return Instance with {@link #DEFAULT_PARALLEL_THRESHOLD} running in the common fork/join pool.
+	 */
+	public static ParallelCollectionUtils getShared() {
+		return SHARED;
+	}
+
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Counts the number of items equal to <code>obj</code>.
+	 * @see CollectionUtils#count(Object, List)
+	 */
+	public int count(final Object obj, Collection<?> values) {
+		return count(values, new Predicate<Object>() {
+			@Override
+			public boolean test(Object value) {
+				return obj.equals(value);
+			}
+		});
+	}
+
+	/**
+	 * Counts the number of items matching the predicate.
+	 */
+	public <T> int count(Collection<T> values, final Predicate<? super T> predicate) {
+		return run(values.spliterator(), values.size(), new Function<Spliterator<T>, Integer>() {
+			@Override
+			public Integer apply(Spliterator<T> part) {
+				final int[] count = new int[1];
+				part.forEachRemaining(new Consumer<T>() {
+					@Override
+					public void accept(T value) {
+						if (predicate.test(value)) {
+							count[0]++;
+						}
+					}
+				});
+				return count[0];
+			}
+		}, new BinaryOperator<Integer>() {
+			@Override
+			public Integer apply(Integer a, Integer b) {
+				return a + b;
+			}
+		});
+	}
+
+	/**
+	 * Checks whether all objects in a collection are equal. Stops all tasks at the first mismatch.
+	 * @see CollectionUtils#checkForEqualityOnAllValues(Collection)
+	 */
+	public boolean checkForEqualityOnAllValues(Collection<?> values) {
+		final Object o = values.iterator().next();
+		return allMatch(values, new Predicate<Object>() {
+			@Override
+			public boolean test(Object value) {
+				return o.equals(value);
+			}
+		});
+	}
+
+	/**
+	 * Checks whether all items match the predicate. Stops all tasks at the first mismatch.
+	 */
+	public <T> boolean allMatch(Collection<T> values, final Predicate<? super T> predicate) {
+		final AtomicBoolean mismatch = new AtomicBoolean();
+		run(values.spliterator(), values.size(), new Function<Spliterator<T>, Boolean>() {
+			@Override
+			public Boolean apply(Spliterator<T> part) {
+				final boolean[] matches = {true};
+				Consumer<T> test = new Consumer<T>() {
+					@Override
+					public void accept(T value) {
+						matches[0] = predicate.test(value);
+					}
+				};
+				while (matches[0] && !mismatch.get() && part.tryAdvance(test)) {
+					// advance until a mismatch here or in another task
+				}
+				if (!matches[0]) {
+					mismatch.set(true);
+				}
+				return null;
+			}
+		}, null);
+		return !mismatch.get();
+	}
+
+	/**
+	 * Checks whether both lists have the same size and equal items at each index. Random access lists are compared
+	 * in parallel, other lists sequentially.
+	 * @see CollectionUtils#equalsAll(List, List)
+	 */
+	public boolean equalsAll(final List<?> listA, final List<?> listB) {
+		if (listA.size() != listB.size()) {
+			return false;
+		}
+		if (!(listA instanceof RandomAccess) || !(listB instanceof RandomAccess)) {
+			return CollectionUtils.equalsAll(listA, listB);
+		}
+		final AtomicBoolean mismatch = new AtomicBoolean();
+		run(IntStream.range(0, listA.size()).spliterator(), listA.size(), new Function<Spliterator<Integer>, Boolean>() {
+			@Override
+			public Boolean apply(Spliterator<Integer> part) {
+				final boolean[] matches = {true};
+				IntConsumer test = new IntConsumer() {
+					@Override
+					public void accept(int i) {
+						matches[0] = listA.get(i).equals(listB.get(i));
+					}
+				};
+				Spliterator.OfInt indexes = (Spliterator.OfInt) part;
+				while (matches[0] && !mismatch.get() && indexes.tryAdvance(test)) {
+					// advance until a mismatch here or in another task
+				}
+				if (!matches[0]) {
+					mismatch.set(true);
+				}
+				return null;
+			}
+		}, null);
+		return !mismatch.get();
+	}
+
+	/**
+	 * @return New list with all items matching the predicate, in iteration order of <code>values</code>.
+	 */
+	public <T> List<T> filter(Collection<T> values, final Predicate<? super T> predicate) {
+		return run(values.spliterator(), values.size(), new Function<Spliterator<T>, List<T>>() {
+			@Override
+			public List<T> apply(Spliterator<T> part) {
+				final List<T> out = new ArrayList<T>();
+				part.forEachRemaining(new Consumer<T>() {
+					@Override
+					public void accept(T value) {
+						if (predicate.test(value)) {
+							out.add(value);
+						}
+					}
+				});
+				return out;
+			}
+		}, new BinaryOperator<List<T>>() {
+			@Override
+			public List<T> apply(List<T> a, List<T> b) {
+				a.addAll(b);
+				return a;
+			}
+		});
+	}
+
+	/**
+	 * Passes every item to the action, in parallel for large collections. The order of the calls is undefined.
+	 */
+	public <T> void forEach(Collection<T> values, final Consumer<? super T> action) {
+		run(values.spliterator(), values.size(), new Function<Spliterator<T>, Void>() {
+			@Override
+			public Void apply(Spliterator<T> part) {
+				part.forEachRemaining(action);
+				return null;
+			}
+		}, null);
+	}
+
+	/**
+	 * Processes a spliterator in the calling thread if it is small or splits it into fork/join tasks.
+	 * @param combine Combines the results of two adjacent parts, the left one first. <code>null</code> if results are ignored.
+	 */
+	private <T, R> R run(Spliterator<T> spliterator, int size, Function<Spliterator<T>, R> leaf, BinaryOperator<R> combine) {
+		if (size < parallelThreshold || pool.getParallelism() < 2) {
+			return leaf.apply(spliterator);
+		}
+		long leafSize = Math.max(MIN_LEAF_SIZE, size / (pool.getParallelism() * 4L));
+		SplitTask<T, R> task = new SplitTask<T, R>(spliterator, leafSize, leaf, combine);
+		if (ForkJoinTask.getPool() == pool) {
+			// nested call from one of our workers: fork into the same pool instead of blocking a worker on a new submission
+			return task.invoke();
+		}
+		return pool.invoke(task);
+	}
+
+	private static class SplitTask<T, R> extends RecursiveTask<R> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Spliterator<T> spliterator;
+		private final long leafSize;
+		private final Function<Spliterator<T>, R> leaf;
+		private final BinaryOperator<R> combine;
+
+		SplitTask(Spliterator<T> spliterator, long leafSize, Function<Spliterator<T>, R> leaf, BinaryOperator<R> combine) {
+			this.spliterator = spliterator;
+			this.leafSize = leafSize;
+			this.leaf = leaf;
+			this.combine = combine;
+		}
+
+		@Override
+		protected R compute() {
+			// every split-off prefix precedes the remaining spliterator, so forks are in iteration order
+			List<SplitTask<T, R>> forks = new ArrayList<SplitTask<T, R>>();
+			Spliterator<T> prefix;
+			while (spliterator.estimateSize() > leafSize && (prefix = spliterator.trySplit()) != null) {
+				SplitTask<T, R> fork = new SplitTask<T, R>(prefix, leafSize, leaf, combine);
+				fork.fork();
+				forks.add(fork);
+			}
+			R own = leaf.apply(spliterator);
+			if (combine == null) {
+				for (SplitTask<T, R> fork : forks) {
+					fork.join();
+				}
+				return own;
+			}
+			R result = null;
+			for (SplitTask<T, R> fork : forks) {
+				R forkResult = fork.join();
+				result = result == null ? forkResult : combine.apply(result, forkResult);
+			}
+			return result == null ? own : combine.apply(result, own);
+		}
+	}
+
+	/**
+	 * @return Unmodifiable list view of the array. Changes of the array are visible in the view.
+	 * @see CollectionUtils#createListFromIterable(Object[])
+	 */
+	public static <T> List<T> listView(T[] array) {
+		return Collections.unmodifiableList(Arrays.asList(array));
+	}
+
+	/**
+	 * @return Unmodifiable view of the list instead of a copy, see {@link CollectionUtils#copyList(List)}.
+	 */
+	public static <T> List<T> listView(List<? extends T> list) {
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * @return Unmodifiable list applying <code>mapping</code> on every access of an item of <code>list</code>.
+	 * The view supports fast random access if <code>list</code> does.
+	 */
+	public static <S, T> List<T> mappedView(List<S> list, Function<? super S, ? extends T> mapping) {
+		if (list instanceof RandomAccess) {
+			return new RandomAccessMappedList<S, T>(list, mapping);
+		}
+		return new MappedList<S, T>(list, mapping);
+	}
+
+	/**
+	 * @return Iterable lazily skipping all items of <code>values</code> not matching the predicate.
+	 */
+	public static <T> Iterable<T> filteredView(final Iterable<T> values, final Predicate<? super T> predicate) {
+		return new Iterable<T>() {
+			@Override
+			public Iterator<T> iterator() {
+				return new FilteredIterator<T>(values.iterator(), predicate);
+			}
+		};
+	}
+
+	private static class MappedList<S, T> extends AbstractList<T> {
+
+		private final List<S> list;
+		private final Function<? super S, ? extends T> mapping;
+
+		MappedList(List<S> list, Function<? super S, ? extends T> mapping) {
+			this.list = list;
+			this.mapping = mapping;
+		}
+
+		@Override
+		public T get(int index) {
+			return mapping.apply(list.get(index));
+		}
+
+		@Override
+		public int size() {
+			return list.size();
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			final Iterator<S> it = list.iterator();
+			return new Iterator<T>() {
+				@Override
+				public boolean hasNext() {
+					return it.hasNext();
+				}
+
+				@Override
+				public T next() {
+					return mapping.apply(it.next());
+				}
+			};
+		}
+	}
+
+	private static class RandomAccessMappedList<S, T> extends MappedList<S, T> implements RandomAccess {
+
+		RandomAccessMappedList(List<S> list, Function<? super S, ? extends T> mapping) {
+			super(list, mapping);
+		}
+	}
+
+	private static class FilteredIterator<T> implements Iterator<T> {
+
+		private final Iterator<T> it;
+		private final Predicate<? super T> predicate;
+		private T next;
+		private boolean hasNext;
+
+		FilteredIterator(Iterator<T> it, Predicate<? super T> predicate) {
+			this.it = it;
+			this.predicate = predicate;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNext && it.hasNext()) {
+				T candidate = it.next();
+				if (predicate.test(candidate)) {
+					next = candidate;
+					hasNext = true;
+				}
+			}
+			return hasNext;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			hasNext = false;
+			T out = next;
+			next = null;
+			return out;
+		}
+	}
+}
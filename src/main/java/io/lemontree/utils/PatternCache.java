@@ -0,0 +1,112 @@
+package io.lemontree.utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of compiled regular expressions. Avoids recompiling the same expression on every call of
+ * regex based helpers, e.g. {@link StringUtils#countOccurrence(String, String)}.
+ * <br>
+ * <br>The patterns are kept in a {@link ConcurrentCache}, evicting the least recently used pattern when full.
+ * <br><b>Example:</b>
+ * <br><code>PatternCache.getShared().get("\\d+").matcher("a1b22").find()</code> returns true
+ */
+public class PatternCache {
+
+	private static final int DEFAULT_MAX_SIZE = 512;
+
+	private static final PatternCache SHARED = new PatternCache(DEFAULT_MAX_SIZE);
+
+	private final ConcurrentCache<Key, Pattern> patterns;
+	private final int maxSize;
+
+	/**
+	 * @param maxSize Maximum number of compiled patterns kept. Must be greater than 0.
+	 */
+	public PatternCache(int maxSize) {
+		this.patterns = new ConcurrentCache<Key, Pattern>(maxSize);
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @return Cache shared by the library's regex based helpers.
+	 */
+	public static PatternCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Returns the compiled pattern for an expression, compiling and caching it on the first request.
+	 */
+	public Pattern get(String regex) {
+		return get(regex, 0);
+	}
+
+	/**
+	 * Returns the compiled pattern for an expression and flags (see {@link Pattern#compile(String, int)}),
+	 * compiling and caching it on the first request.
+	 */
+	public Pattern get(String regex, int flags) {
+		Key key = new Key(regex, flags);
+		Pattern pattern = patterns.get(key);
+		if (pattern == null) {
+			pattern = Pattern.compile(regex, flags);
+			patterns.put(key, pattern);
+		}
+		return pattern;
+	}
+
+	public long getHitCount() {
+		return patterns.getHitCount();
+	}
+
+	public long getMissCount() {
+		return patterns.getMissCount();
+	}
+
+	/**
+	 * @return Share of lookups answered from the cache, 0 if there weren't any lookups.
+	 */
+	public double getHitRate() {
+		return patterns.getHitRate();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int size() {
+		return patterns.size();
+	}
+
+	/**
+	 * Removes all patterns and resets the hit and miss counters.
+	 */
+	public void clear() {
+		patterns.clear();
+	}
+
+	private static class Key {
+
+		private final String regex;
+		private final int flags;
+
+		Key(String regex, int flags) {
+			this.regex = regex;
+			this.flags = flags;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * regex.hashCode() + flags;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return flags == other.flags && regex.equals(other.regex);
+		}
+	}
+}
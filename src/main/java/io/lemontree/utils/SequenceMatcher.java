@@ -0,0 +1,179 @@
+package io.lemontree.utils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.BiPredicate;
+
+/**
+ * Precomputed search for a sequence of items (e.g. tokens) within lists, based on Knuth-Morris-Pratt.
+ * A search needs at most 2n item comparisons for a list of n items, regardless of how often the pattern partially matches.
+ * Lists are traversed by iterator, which keeps <code>LinkedList</code>s linear as well.
+ * <br>Items are compared by <code>equals</code> or by an equivalence function, which must be reflexive, symmetric and transitive.
+ * <br><b>Example:</b>
+ * <br>list = ["a", "b", "a", "b", "a", "c"]
+ * <br>matcher = new SequenceMatcher&lt;String&gt;(["a", "b", "a"])
+ * <br><code>matcher.indexOf(list)</code> returns 0
+ * <br><code>matcher.lastIndexOf(list)</code> returns 2
+ * <br><code>matcher.indexesOf(list, true)</code> returns [0, 2]
+ * <br><code>matcher.indexesOf(list, false)</code> returns [0]
+ * <br>
+ * <br>An empty pattern matches at every position, like the empty string in <code>String.indexOf</code>.
+ * <br>Instances are immutable and may be shared between threads if the pattern items are not modified.
+ */
+public class SequenceMatcher<T> {
+
+	private final Object[] pattern;
+	private final Object[] reversed;
+	private final BiPredicate<? super T, ? super T> equivalence;
+	/** Length of the longest proper prefix of <code>pattern[0 ... i]</code> that is also its suffix. */
+	private final int[] failure;
+	private final int[] reversedFailure;
+
+	/**
+	 * Matches items by <code>equals</code>.
+	 */
+	public SequenceMatcher(List<? extends T> pattern) {
+		this(pattern, null);
+	}
+
+	/**
+	 * @param equivalence Called with a pattern item and a list item. <code>null</code> to use <code>equals</code>.
+	 */
+	public SequenceMatcher(List<? extends T> pattern, BiPredicate<? super T, ? super T> equivalence) {
+		this.equivalence = equivalence;
+		this.pattern = pattern.toArray();
+		this.reversed = new Object[this.pattern.length];
+		for (int i = 0; i < reversed.length; i++) {
+			reversed[i] = this.pattern[reversed.length - 1 - i];
+		}
+		this.failure = failureTable(this.pattern);
+		this.reversedFailure = failureTable(reversed);
+	}
+
+	private int[] failureTable(Object[] p) {
+		int[] table = new int[p.length];
+		int k = 0;
+		for (int i = 1; i < p.length; i++) {
+			while (k > 0 && !matches(p[k], p[i])) {
+				k = table[k - 1];
+			}
+			if (matches(p[k], p[i])) {
+				k++;
+			}
+			table[i] = k;
+		}
+		return table;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean matches(Object patternItem, Object item) {
+		if (equivalence != null) {
+			return equivalence.test((T) patternItem, (T) item);
+		}
+		return patternItem == null ? item == null : patternItem.equals(item);
+	}
+
+	/**
+	 * @return Number of matched pattern items after consuming <code>item</code>.
+	 */
+	private int advance(Object[] p, int[] table, int matched, Object item) {
+		while (matched > 0 && !matches(p[matched], item)) {
+			matched = table[matched - 1];
+		}
+		if (matches(p[matched], item)) {
+			matched++;
+		}
+		return matched;
+	}
+
+	/**
+	 * @return Number of items of the pattern.
+	 */
+	public int length() {
+		return pattern.length;
+	}
+
+	/**
+	 * @return Index of the first occurrence of the pattern in <code>list</code> or -1.
+	 */
+	public int indexOf(List<? extends T> list) {
+		return indexOf(list, 0);
+	}
+
+	/**
+	 * @return Index of the first occurrence of the pattern in <code>list</code> starting at or after <code>fromIndex</code> or -1.
+	 */
+	public int indexOf(List<? extends T> list, int fromIndex) {
+		fromIndex = Math.max(fromIndex, 0);
+		if (fromIndex > list.size()) {
+			return -1;
+		}
+		int pos = indexOf(list.listIterator(fromIndex));
+		return pos < 0 ? pos : fromIndex + pos;
+	}
+
+	/**
+	 * Consumes <code>items</code> until the pattern is found, e.g. to detect a token sequence in a stream
+	 * (<code>stream.iterator()</code>). The iterator is left behind the occurrence, so calling this again finds the next
+	 * non overlapping occurrence.
+	 * @return Index of the first occurrence relative to the iterator's position or -1 if the iterator is exhausted.
+	 */
+	public int indexOf(Iterator<? extends T> items) {
+		if (pattern.length == 0) {
+			return 0;
+		}
+		int matched = 0;
+		for (int i = 0; items.hasNext(); i++) {
+			matched = advance(pattern, failure, matched, items.next());
+			if (matched == pattern.length) {
+				return i - pattern.length + 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return Index of the last occurrence of the pattern in <code>list</code> or -1.
+	 */
+	public int lastIndexOf(List<? extends T> list) {
+		if (pattern.length == 0) {
+			return list.size();
+		}
+		int matched = 0;
+		ListIterator<? extends T> it = list.listIterator(list.size());
+		for (int i = list.size() - 1; it.hasPrevious(); i--) {
+			matched = advance(reversed, reversedFailure, matched, it.previous());
+			if (matched == reversed.length) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Detects the start positions of all occurrences of the pattern.
+	 * @param overlapping Whether an occurrence may start within the previous one.
+	 * @return Ascending start positions, an empty array if there are none.
+	 */
+	public int[] indexesOf(List<? extends T> list, boolean overlapping) {
+		IntList out = new IntList();
+		if (pattern.length == 0) {
+			for (int i = 0; i <= list.size(); i++) {
+				out.add(i);
+			}
+			return out.toArray();
+		}
+		int matched = 0;
+		int i = 0;
+		for (T item : list) {
+			matched = advance(pattern, failure, matched, item);
+			if (matched == pattern.length) {
+				out.add(i - pattern.length + 1);
+				matched = overlapping ? failure[matched - 1] : 0;
+			}
+			i++;
+		}
+		return out.toArray();
+	}
+}
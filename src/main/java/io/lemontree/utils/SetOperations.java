@@ -0,0 +1,245 @@
+package io.lemontree.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Set algebra on lists and collections that keeps the order of the input: difference, intersection, union and distinct.
+ * All results are new lists, the inputs are not modified (except the target of {@link #addAllMissing(List, Collection)}).
+ * <br>
+ * <br>The lookup side is chosen by size: collections of up to {@value #LINEAR_SCAN_THRESHOLD} items are scanned linearly,
+ * <code>Set</code>s are queried directly and larger collections are hashed once, so an operation costs O(n + m)
+ * instead of O(n*m) for <code>List.contains</code> in a loop. Equality is defined by <code>equals</code>/<code>hashCode</code>
+ * as for <code>List.contains</code>.
+ * <br>The variants taking a <code>Comparator</code> define equality by the comparator instead. If both inputs are already
+ * sorted they are merged in a single pass, otherwise the lookup side is sorted once and binary searched.
+ * <br><b>Example:</b>
+ * <br>listA = ["a", "b", "c", "b"]
+ * <br>listB = ["b", "d"]
+ * <br><code>difference(listA, listB)</code> returns ["a", "c"]
+ * <br><code>intersection(listA, listB)</code> returns ["b", "b"]
+ * <br><code>union(listA, listB)</code> returns ["a", "b", "c", "b", "d"]
+ * <br><code>distinct(listA)</code> returns ["a", "b", "c"]
+ */
+public class SetOperations {
+
+	/** Lookup collections of at most this size are scanned instead of hashed. */
+	static final int LINEAR_SCAN_THRESHOLD = 16;
+
+	/**
+	 * @return All items of <code>items</code> (in order, including duplicates) not contained in <code>removings</code>.
+	 */
+	public static <T> List<T> difference(Collection<? extends T> items, Collection<?> removings) {
+		return filter(items, lookup(removings), false);
+	}
+
+	/**
+	 * @return All items of <code>items</code> (in order, including duplicates) contained in <code>others</code>.
+	 */
+	public static <T> List<T> intersection(Collection<? extends T> items, Collection<?> others) {
+		return filter(items, lookup(others), true);
+	}
+
+	/**
+	 * @return All items of <code>first</code> followed by the distinct items of <code>second</code> not contained in <code>first</code>.
+	 */
+	public static <T> List<T> union(Collection<? extends T> first, Collection<? extends T> second) {
+		List<T> out = new ArrayList<T>(first.size() + second.size());
+		out.addAll(first);
+		addAllMissing(out, second);
+		return out;
+	}
+
+	/**
+	 * @return The first occurrence of every item in order of <code>items</code>.
+	 */
+	public static <T> List<T> distinct(Collection<? extends T> items) {
+		if (items.size() <= LINEAR_SCAN_THRESHOLD) {
+			List<T> out = new ArrayList<T>(items.size());
+			for (T item : items) {
+				if (!out.contains(item)) {
+					out.add(item);
+				}
+			}
+			return out;
+		}
+		return new ArrayList<T>(new LinkedHashSet<T>(items));
+	}
+
+	/**
+	 * Appends every item of <code>additions</code> to <code>target</code> unless it is already contained in <code>target</code>
+	 * (including items appended before).
+	 */
+	public static <T> void addAllMissing(List<T> target, Collection<? extends T> additions) {
+		if (target.size() + additions.size() <= LINEAR_SCAN_THRESHOLD) {
+			for (T item : additions) {
+				if (!target.contains(item)) {
+					target.add(item);
+				}
+			}
+			return;
+		}
+		Set<Object> contained = new HashSet<Object>(target);
+		for (T item : additions) {
+			if (contained.add(item)) {
+				target.add(item);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether <code>value</code> equals an item of <code>values</code>, using <code>Collection.contains</code>
+	 * (i.e. a hash lookup for sets) if possible.
+	 */
+	public static boolean contains(Iterable<?> values, Object value) {
+		if (values instanceof Collection) {
+			return ((Collection<?>) values).contains(value);
+		}
+		for (Object item : values) {
+			if (item == null ? value == null : item.equals(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return All items of <code>items</code> (in order, including duplicates) without a comparator-equal item in <code>removings</code>.
+	 */
+	public static <T> List<T> difference(Collection<? extends T> items, Collection<? extends T> removings, Comparator<? super T> comparator) {
+		if (isSorted(items, comparator) && isSorted(removings, comparator)) {
+			return merge(items, removings, comparator, false);
+		}
+		return filter(items, sortedLookup(removings, comparator), false);
+	}
+
+	/**
+	 * @return All items of <code>items</code> (in order, including duplicates) with a comparator-equal item in <code>others</code>.
+	 */
+	public static <T> List<T> intersection(Collection<? extends T> items, Collection<? extends T> others, Comparator<? super T> comparator) {
+		if (isSorted(items, comparator) && isSorted(others, comparator)) {
+			return merge(items, others, comparator, true);
+		}
+		return filter(items, sortedLookup(others, comparator), true);
+	}
+
+	/**
+	 * @return All items of <code>first</code> followed by the distinct items of <code>second</code> without a comparator-equal item in <code>first</code>.
+	 */
+	public static <T> List<T> union(Collection<? extends T> first, Collection<? extends T> second, Comparator<? super T> comparator) {
+		List<T> out = new ArrayList<T>(first.size() + second.size());
+		out.addAll(first);
+		Set<T> contained = new TreeSet<T>(comparator);
+		contained.addAll(first);
+		for (T item : second) {
+			if (contained.add(item)) {
+				out.add(item);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * @return The first of all comparator-equal items in order of <code>items</code>.
+	 */
+	public static <T> List<T> distinct(Collection<? extends T> items, Comparator<? super T> comparator) {
+		List<T> out = new ArrayList<T>();
+		Set<T> contained = new TreeSet<T>(comparator);
+		for (T item : items) {
+			if (contained.add(item)) {
+				out.add(item);
+			}
+		}
+		return out;
+	}
+
+	private static <T> List<T> filter(Collection<? extends T> items, Predicate<Object> lookup, boolean keepContained) {
+		List<T> out = new ArrayList<T>();
+		for (T item : items) {
+			if (lookup.test(item) == keepContained) {
+				out.add(item);
+			}
+		}
+		return out;
+	}
+
+	private static Predicate<Object> lookup(final Collection<?> values) {
+		if (values instanceof Set || values.size() <= LINEAR_SCAN_THRESHOLD) {
+			return new Predicate<Object>() {
+				@Override
+				public boolean test(Object item) {
+					return values.contains(item);
+				}
+			};
+		}
+		final Set<Object> hashed = new HashSet<Object>(values);
+		return new Predicate<Object>() {
+			@Override
+			public boolean test(Object item) {
+				return hashed.contains(item);
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Predicate<Object> sortedLookup(Collection<? extends T> values, final Comparator<? super T> comparator) {
+		final Object[] sorted = values.toArray();
+		Arrays.sort((T[]) sorted, comparator);
+		return new Predicate<Object>() {
+			@Override
+			public boolean test(Object item) {
+				return Arrays.binarySearch((T[]) sorted, (T) item, comparator) >= 0;
+			}
+		};
+	}
+
+	/**
+	 * Walks both sorted inputs once, advancing the lookup side while its items are smaller.
+	 */
+	private static <T> List<T> merge(Collection<? extends T> items, Collection<? extends T> lookup, Comparator<? super T> comparator, boolean keepContained) {
+		List<T> out = new ArrayList<T>();
+		Iterator<? extends T> it = lookup.iterator();
+		T current = it.hasNext() ? it.next() : null;
+		boolean exhausted = lookup.isEmpty();
+		for (T item : items) {
+			int cmp = -1;
+			while (!exhausted && (cmp = comparator.compare(current, item)) < 0) {
+				if (it.hasNext()) {
+					current = it.next();
+				} else {
+					exhausted = true;
+				}
+			}
+			boolean contained = !exhausted && cmp == 0;
+			if (contained == keepContained) {
+				out.add(item);
+			}
+		}
+		return out;
+	}
+
+	private static <T> boolean isSorted(Collection<? extends T> values, Comparator<? super T> comparator) {
+		Iterator<? extends T> it = values.iterator();
+		if (!it.hasNext()) {
+			return true;
+		}
+		T previous = it.next();
+		while (it.hasNext()) {
+			T next = it.next();
+			if (comparator.compare(previous, next) > 0) {
+				return false;
+			}
+			previous = next;
+		}
+		return true;
+	}
+}
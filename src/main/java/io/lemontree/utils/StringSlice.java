@@ -0,0 +1,149 @@
+package io.lemontree.utils;
+
+/**
+ * Read only view on a range of a String. Creating a slice doesn't copy any chars; the String
+ * of a slice is only created when {@link #toString()} is called and is kept for further calls.
+ * <br>
+ * <br>Two slices are equal if they contain the same chars, no matter which Strings they are backed by.
+ * {@link #hashCode()} equals the hash code of the corresponding String, so slices and Strings may be
+ * compared by <code>hashCode()</code> and {@link #contentEquals(CharSequence)}.
+ * <br><b>Example:</b>
+ * <br>slice = new StringSlice("Hello World", 6, 11)
+ * <br><code>slice.contentEquals("World")</code> returns true
+ */
+public final class StringSlice implements CharSequence {
+
+	private final String source;
+	private final int start;
+	private final int end;
+	private String string;
+	private int hash;
+
+	/**
+	 * @param source Backing String.
+	 * @param start Inclusive start position.
+	 * @param end Exclusive end position.
+	 */
+	public StringSlice(String source, int start, int end) {
+		if (start < 0 || end > source.length() || start > end) {
+			throw new LagoonUtilsException("Invalid slice range "+start+".."+end+" of a String with length "+source.length());
+		}
+		this.source = source;
+		this.start = start;
+		this.end = end;
+		if (start == 0 && end == source.length()) {
+			this.string = source;
+		}
+	}
+
+	/**
+	 * @param range Range with inclusive start and exclusive end position.
+	 */
+	public StringSlice(String source, PositionRange range) {
+		this(source, range.getStart(), range.getEnd());
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return Range of this slice in its source, end position exclusive.
+	 */
+	public PositionRange getRange() {
+		return new PositionRange(start, end);
+	}
+
+	public int getStart() {
+		return start;
+	}
+
+	public int getEnd() {
+		return end;
+	}
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	public boolean isEmpty() {
+		return start == end;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= end - start) {
+			throw new IndexOutOfBoundsException("index "+index+", length "+length());
+		}
+		return source.charAt(start + index);
+	}
+
+	@Override
+	public StringSlice subSequence(int subStart, int subEnd) {
+		if (subStart < 0 || subEnd > length() || subStart > subEnd) {
+			throw new IndexOutOfBoundsException("range "+subStart+".."+subEnd+", length "+length());
+		}
+		return new StringSlice(source, start + subStart, start + subEnd);
+	}
+
+	/**
+	 * @return Position of <code>str</code> within this slice, -1 if it isn't contained.
+	 */
+	public int indexOf(String str) {
+		int pos = source.indexOf(str, start);
+		return pos < 0 || pos + str.length() > end ? -1 : pos - start;
+	}
+
+	/**
+	 * Compares the chars of this slice with any other char sequence.
+	 */
+	public boolean contentEquals(CharSequence other) {
+		if (other == null || other.length() != length()) {
+			return false;
+		}
+		if (other instanceof String) {
+			return source.regionMatches(start, (String) other, 0, length());
+		}
+		for (int i = 0; i < length(); i++) {
+			if (source.charAt(start + i) != other.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			for (int i = start; i < end; i++) {
+				h = 31 * h + source.charAt(i);
+			}
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof StringSlice)) {
+			return false;
+		}
+		StringSlice other = (StringSlice) obj;
+		return other.length() == length() && source.regionMatches(start, other.source, other.start, length());
+	}
+
+	@Override
+	public String toString() {
+		String s = string;
+		if (s == null) {
+			s = source.substring(start, end);
+			string = s;
+		}
+		return s;
+	}
+}
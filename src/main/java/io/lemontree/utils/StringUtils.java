@@ -1,9 +1,6 @@
 package io.lemontree.utils;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -12,9 +9,21 @@ import java.io.Serializable;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Vector;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,8 +33,40 @@ public class StringUtils implements Serializable{
 	public static final String LINE_BREAK = "\r\n";
 	public static final String HTML_AWARE_WHITESPACE_EXPR = "\\s\\u00A0";
 	
-	private static final String HTML_AWARE_WHITESPACE_BEGIN_EXPR = "^["+HTML_AWARE_WHITESPACE_EXPR+"]+";
-	private static final String HTML_AWARE_WHITESPACE_END_EXPR = "["+HTML_AWARE_WHITESPACE_EXPR+"]+$";
+	private static final long MAPPED_READ_THRESHOLD = 16 * 1024 * 1024;
+	private static final long MAPPED_READ_WINDOW = 256 * 1024 * 1024;
+	private static final ThreadLocal<Map<Charset, CharsetDecoder>> DECODERS = new ThreadLocal<Map<Charset, CharsetDecoder>>() {
+		@Override
+		protected Map<Charset, CharsetDecoder> initialValue() {
+			return new HashMap<Charset, CharsetDecoder>(4);
+		}
+	};
+	
+	private static final OperationMetrics READ_FILE_METRICS = UtilsMetrics.operation("StringUtils.readFileAsString");
+	private static final OperationMetrics ENCAPSULATED_METRICS = UtilsMetrics.operation("StringUtils.getEncapsulatedStrings");
+	private static final OperationMetrics COUNT_OCCURRENCE_METRICS = UtilsMetrics.operation("StringUtils.countOccurrence");
+	private static final OperationMetrics COMMON_SUBSTRING_METRICS = UtilsMetrics.operation("StringUtils.getLongestCommonSubstring");
+	private static final OperationMetrics REPLACE_IN_ALL_METRICS = UtilsMetrics.operation("StringUtils.replaceInAll");
+	
+	private static final HtmlWhitespaceNormalizer HTML_WHITESPACE_NORMALIZER = HtmlWhitespaceNormalizer.builder()
+			.trim(true).collapseWhitespace(true).build();
+	
+	private static final String[] REG_EX_CHARACTERS = {"\\", "$", "[", "]", "(", ")", "{", "}", "|", "^", "*", "+", "?", "."};
+	private static final MultiPatternMatcher REG_EX_CHARACTER_MATCHER = new MultiPatternMatcher(REG_EX_CHARACTERS);
+	private static final Map<String, String> REG_EX_CHARACTER_ESCAPES = new HashMap<String, String>();
+	static {
+		for(String regExCharacter:REG_EX_CHARACTERS){
+			REG_EX_CHARACTER_ESCAPES.put(regExCharacter, "\\"+regExCharacter);
+		}
+	}
+
+	/**
+	 * Creates an index of all nested structures in <code>content</code>, tokenizing the document only once.
+	 * @see NestedStructureIndex
+	 */
+	public static NestedStructureIndex indexNestedStructure(String content, String leftDelimiter, String rightDelimiter) {
+		return new NestedStructureIndex(content, leftDelimiter, rightDelimiter);
+	}
 
 	public static PositionRange getFirstNestedEncapsulationPosition(
 			String propertiesPart, String leftDelimiter, String rightDelimiter) {
@@ -85,6 +126,7 @@ public class StringUtils implements Serializable{
 
 	/**
 	 * Detects content within in nested structures, e.g. HTML tags
+	 * <br>To extract many regions of the same document build a {@link NestedStructureIndex} once instead.
 	 * @param openString
 	 * @param closeString
 	 * @param code
@@ -95,6 +137,15 @@ public class StringUtils implements Serializable{
 		Integer[] positions = getEnclosedContentInNestedStructurePositions(openString, closeString, code, includeBorders);
 		return code.substring(positions[0], positions[1]);
 	}
+	
+	/**
+	 * Same as {@link #getEnclosedContentInNestedStructure(String, String, String, boolean)} but returns a view on <code>code</code> instead of a copy.
+	 */
+	public static StringSlice getEnclosedSliceInNestedStructure(String openString, String closeString, String code, boolean includeBorders) {
+		
+		Integer[] positions = getEnclosedContentInNestedStructurePositions(openString, closeString, code, includeBorders);
+		return new StringSlice(code, positions[0], positions[1]);
+	}
 
 	public static Integer[] getEnclosedContentInNestedStructurePositions(String openString, String closeString, String code, boolean includeBorders) {
 	
@@ -133,63 +184,133 @@ public class StringUtils implements Serializable{
 	}
 
 
+	/**
+	 * Lower cases a string and upper cases the first letter of each space separated word. Trailing spaces are removed.
+	 * <br><b>Example:</b>
+	 * <br><code>toCamelCase("hELLO wORLD")</code> returns "Hello World"
+	 */
 	public static String toCamelCase(String string) {
-		String [] splitStr = string.toLowerCase().split(" ");
-		
-		for(int i=0; i< splitStr.length; i++){
-			splitStr[i] = toUpperCaseBegin(splitStr[i]);
+		String lower = string.toLowerCase();
+		int end = lower.length();
+		while(end > 0 && lower.charAt(end - 1) == ' '){
+			end--;
 		}
-		return concatArray(splitStr, " ");
+		StringBuilder out = new StringBuilder(end);
+		boolean wordBegin = true;
+		for(int i = 0; i < end; i++){
+			char c = lower.charAt(i);
+			if(c == ' '){
+				out.append(c);
+				wordBegin = true;
+			}else if(wordBegin){
+				appendUpperCase(out, c);
+				wordBegin = false;
+			}else{
+				out.append(c);
+			}
+		}
+		return out.toString();
 	}
 	
+	/**
+	 * Converts an identifier to another naming style, e.g. from "orderItemId" to "order_item_id".
+	 * Results are memoized in {@link IdentifierCaseConverter#getShared()}.
+	 * <br>Unlike {@link #convertSeparatorToCamelCase_LowerCaseBegin(String, String)} any separator and camel case input is detected.
+	 * <br><b>Example:</b>
+	 * <br><code>convertIdentifierCase("XMLHttpRequest", IdentifierCase.KEBAB)</code> returns "xml-http-request"
+	 * @see IdentifierCase
+	 */
+	public static String convertIdentifierCase(String identifier, IdentifierCase target) {
+		return IdentifierCaseConverter.getShared().convert(identifier, target);
+	}
+
 	public static String convertSeparatorToCamelCase_LowerCaseBegin(final String rawName, String separator){
-		return toLowerCaseBegin(convertSeparatorToCamelCase_UpperCaseBegin(rawName, separator));
+		StringBuilder name = appendSeparatorToCamelCase(new StringBuilder(rawName.length()), rawName, separator);
+		if(name.length() > 0 && name.charAt(0) < 128){
+			name.setCharAt(0, Character.toLowerCase(name.charAt(0)));
+			return name.toString();
+		}
+		return toLowerCaseBegin(name.toString());
 	}
 	
 	public static String convertSeparatorToCamelCase_UpperCaseBegin(final String rawName, String separator){
-		String [] nameParts = rawName.split(separator);
-		String name = "";
-		for(String namePart:nameParts){
-			name += toUpperCaseBegin(namePart);
+		return appendSeparatorToCamelCase(new StringBuilder(rawName.length()), rawName, separator).toString();
+	}
+	
+	/**
+	 * Appends the separated parts of <code>rawName</code>, each beginning upper case.
+	 * <code>separator</code> is a regular expression as in <code>String.split</code>, plain separators are detected without regex.
+	 */
+	private static StringBuilder appendSeparatorToCamelCase(StringBuilder name, String rawName, String separator){
+		if(separator.isEmpty() || REG_EX_CHARACTER_MATCHER.containsAny(separator)){
+			for(String namePart:rawName.split(separator)){
+				name.append(toUpperCaseBegin(namePart));
+			}
+			return name;
+		}
+		boolean partBegin = true;
+		int i = 0;
+		while(i < rawName.length()){
+			if(rawName.startsWith(separator, i)){
+				i += separator.length();
+				partBegin = true;
+				continue;
+			}
+			char c = rawName.charAt(i++);
+			if(partBegin){
+				appendUpperCase(name, c);
+				partBegin = false;
+			}else{
+				name.append(c);
+			}
 		}
 		return name;
 	}
+	
+	private static void appendUpperCase(StringBuilder out, char c){
+		if(c < 128){
+			out.append(Character.toUpperCase(c));
+		}else{
+			out.append(String.valueOf(c).toUpperCase());
+		}
+	}
 
-	private static String concatArray(String[] splitStr, String seperator) {
-		String out = "";
-		for (int i=0; i < splitStr.length; i++){
+	/**
+	 * Joins the strings, putting <code>separator</code> between each two of them, in a single presized buffer.
+	 * <br><b>Example:</b>
+	 * <br><code>concatArray(new String[]{"a", "b", "c"}, ", ")</code> returns "a, b, c"
+	 * @see #concatStrings(List)
+	 */
+	public static String concatArray(String[] values, String separator) {
+		int length = 0;
+		for(String value : values){
+			length += String.valueOf(value).length() + separator.length();
+		}
+		StringBuilder out = new StringBuilder(length);
+		for (int i=0; i < values.length; i++){
 			if(i > 0){
-				out += seperator;
+				out.append(separator);
 			}
-			out += splitStr[i];
+			out.append(values[i]);
 		}
-		return out;
+		return out.toString();
 	}
 	
+	/**
+	 * Creates a file with the platform's default charset unless it already exists. The file appears with its complete content
+	 * in one step, see {@link AtomicFileWriter#create(Path, CharSequence)}.
+	 */
 	public static void createStringFileIfNotExists(final String targetFilePath, final String fileCode) {
 
-		File targetFile = new File(targetFilePath);
-		if(!targetFile.exists()){
-			try {
-				targetFile.createNewFile();
-				writeStringToFile(fileCode, targetFile);
-			} catch (IOException e) {
-				throw new LagoonUtilsException(e);
-			}
+		try {
+			new AtomicFileWriter(Charset.defaultCharset(), false).create(new File(targetFilePath).toPath(), fileCode);
+		} catch (IOException e) {
+			throw new LagoonUtilsException(e);
 		}
 	}
 	public static void createOrOverwriteStringFile(final String targetFilePath, final String fileCode) {
 
-		File targetFile = new File(targetFilePath);
-		if(!targetFile.exists()){
-			try {
-				targetFile.createNewFile();
-			} catch (IOException e) {
-				throw new LagoonUtilsException(e);
-			}
-		}
-		writeStringToFile(fileCode, targetFile);
-
+		writeStringToFile(fileCode, new File(targetFilePath));
 	}
 	
 	private static final long serialVersionUID = 1L;
@@ -199,22 +320,109 @@ public class StringUtils implements Serializable{
 		return readFileAsString(new File(filePath));
 	}
 
+	/**
+	 * Reads a file with the platform's default charset, like <code>java.io.FileReader</code>.
+	 * @see #readFileAsString(Path, Charset)
+	 */
 	public static String readFileAsString(File file) {
-		StringBuffer fileData = new StringBuffer(1000);
-		try{
-		BufferedReader reader = new BufferedReader(new FileReader(file));
-		char[] buf = new char[1024];
-		int numRead = 0;
-		while ((numRead = reader.read(buf)) != -1) {
-			String readData = String.valueOf(buf, 0, numRead);
-			fileData.append(readData);
-			buf = new char[1024];
-		}
-		reader.close();
-		}catch(IOException e){
-			throw new RuntimeException(e);
+		return readFileAsString(file.toPath(), Charset.defaultCharset());
+	}
+
+	public static String readFileAsString(File file, Charset charset) {
+		return readFileAsString(file.toPath(), charset);
+	}
+
+	/**
+	 * Reads a whole file into a String. Buffers are sized from the file length. Files up to
+	 * {@value #MAPPED_READ_THRESHOLD} bytes are read in one go, larger ones are memory mapped and decoded
+	 * window by window with a decoder reused by the current thread. Malformed input is replaced, as with <code>java.io.FileReader</code>.
+	 */
+	public static String readFileAsString(Path file, Charset charset) {
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			String content = size <= MAPPED_READ_THRESHOLD ? readSmallFile(channel, (int) size, charset) : readMappedFile(channel, size, charset);
+			if (UtilsMetrics.ENABLED) {
+				READ_FILE_METRICS.record(start, content.length(), size);
+			}
+			return content;
+		} catch (IOException e) {
+			throw new LagoonUtilsException("Could not read file "+file, e);
+		}
+	}
+
+	private static String readSmallFile(FileChannel channel, int size, Charset charset) throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(size);
+		while (bytes.hasRemaining() && channel.read(bytes) != -1) {
+			// read until the buffer is full or the file ends early
+		}
+		if (!bytes.hasRemaining()) {
+			// the file might have grown since its size was determined
+			ByteBuffer probe = ByteBuffer.allocate(1);
+			if (channel.read(probe) > 0) {
+				return readMappedFile(channel, channel.size(), charset);
+			}
+		}
+		return new String(bytes.array(), 0, bytes.position(), charset);
+	}
+
+	private static String readMappedFile(FileChannel channel, long size, Charset charset) throws IOException {
+		CharsetDecoder decoder = getDecoder(charset);
+		long expectedChars = (long) (size * (double) decoder.averageCharsPerByte());
+		if (expectedChars > Integer.MAX_VALUE - 8) {
+			throw new LagoonUtilsException("File with "+size+" bytes is too large to be read into a String");
+		}
+		CharBuffer chars = CharBuffer.allocate((int) expectedChars + 16);
+		long pos = 0;
+		boolean endOfInput = false;
+		while (!endOfInput) {
+			long windowSize = Math.min(MAPPED_READ_WINDOW, size - pos);
+			endOfInput = pos + windowSize == size;
+			ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, windowSize);
+			while (true) {
+				CoderResult result = decoder.decode(window, chars, endOfInput);
+				if (result.isUnderflow()) {
+					break;
+				}
+				if (result.isOverflow()) {
+					chars = grow(chars);
+				} else {
+					result.throwException();
+				}
+			}
+			pos += window.position();
+		}
+		while (decoder.flush(chars).isOverflow()) {
+			chars = grow(chars);
+		}
+		chars.flip();
+		return chars.toString();
+	}
+
+	private static CharBuffer grow(CharBuffer chars) {
+		int capacity = (int) Math.min(Integer.MAX_VALUE - 8, chars.capacity() * 2L + 16);
+		if (capacity <= chars.capacity()) {
+			throw new LagoonUtilsException("File content is too large to be read into a String");
 		}
-		return fileData.toString();
+		CharBuffer grown = CharBuffer.allocate(capacity);
+		chars.flip();
+		grown.put(chars);
+		return grown;
+	}
+
+	/**
+	 * @return A reset decoder for <code>charset</code>, cached per thread.
+	 */
+	private static CharsetDecoder getDecoder(Charset charset) {
+		Map<Charset, CharsetDecoder> decoders = DECODERS.get();
+		CharsetDecoder decoder = decoders.get(charset);
+		if (decoder == null) {
+			decoder = charset.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			decoders.put(charset, decoder);
+		}
+		return decoder.reset();
 	}
 
 	public static String readResourceAsString(String resourceName) {
@@ -226,21 +434,22 @@ public class StringUtils implements Serializable{
 	public static String convertStreamToString(InputStream is) {
 		
 		if (is != null) {
-			Writer writer = new StringWriter();
+			StringBuilder out = new StringBuilder();
 
-			char[] buffer = new char[1024];
+			char[] buffer = BufferPool.getShared().acquireChars();
 			try {
-				Reader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+				Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8);
 				int n;
 				while ((n = reader.read(buffer)) != -1) {
-					writer.write(buffer, 0, n);
+					out.append(buffer, 0, n);
 				}
 			} catch(Exception e){
 				throw new LagoonUtilsException("Could not convert InputStream to String", e);
 			}finally {
+					BufferPool.getShared().release(buffer);
 					IOUtils.closeQuietly(is);
 			}
-			return writer.toString();
+			return out.toString();
 		} 
 		return "";
 	}
@@ -248,25 +457,33 @@ public class StringUtils implements Serializable{
 	public static String getEncapsulatedString(String content, String from,
 			String to, boolean includeBorders) {
 
-		String substring = "";
+		return getEncapsulatedSlice(content, from, to, includeBorders).toString();
+	}
+	
+	/**
+	 * Same as {@link #getEncapsulatedString(String, String, String, boolean)} but returns a view on <code>content</code> instead of a copy.
+	 * @return The encapsulated part of <code>content</code>, an empty slice if there is none.
+	 */
+	public static StringSlice getEncapsulatedSlice(String content, String from,
+			String to, boolean includeBorders) {
+
 		int startPos = content.indexOf(from);
 		if (startPos == -1)
-			return "";
+			return new StringSlice(content, 0, 0);
 		int endPos = content.indexOf(to, startPos + from.length() + 1);
 		if (endPos == -1)
-			return "";
+			return new StringSlice(content, 0, 0);
 		if (includeBorders) {
-			substring = content.substring(startPos, endPos + to.length());
-		} else {
-			substring = content.substring(startPos + from.length(), endPos);
+			return new StringSlice(content, startPos, endPos + to.length());
 		}
-		return substring;
+		return new StringSlice(content, startPos + from.length(), endPos);
 	}
 
 	public static List<String> getEncapsulatedStrings(String content,
 			String from, String to, boolean includeBorders) {
 
-		List<String> strings = new Vector<String>();
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		List<String> strings = new ArrayList<String>();
 
 		int startPos = content.indexOf(from);
 
@@ -284,13 +501,26 @@ public class StringUtils implements Serializable{
 			strings.add(substring);
 			startPos = content.indexOf(from, endPos + to.length());
 		}
+		if (UtilsMetrics.ENABLED) {
+			ENCAPSULATED_METRICS.record(start, content.length(), 0);
+		}
 		return strings;
 	}
 	
+	/**
+	 * Streaming counterpart of {@link #getEncapsulatedStrings(String, String, String, boolean)}.
+	 * Reads the reader in a single pass and passes each match to the handler without loading the whole content.
+	 * @see EncapsulatedStringScanner
+	 */
+	public static void getEncapsulatedStrings(Reader content,
+			String from, String to, boolean includeBorders, Consumer<CharSequence> handler) {
+		new EncapsulatedStringScanner(from, to, includeBorders).scan(content, handler);
+	}
+	
 	public static List<String> getEncapsulatedStrings_IgnoreEscaped(String content,
 			String from, String to, boolean includeBorders, String escape) {
 
-		List<String> strings = new Vector<String>();
+		List<String> strings = new ArrayList<String>();
 
 		int startPos = content.indexOf(from);
 
@@ -328,49 +558,177 @@ public class StringUtils implements Serializable{
 		return false;
 	}
 
+	/**
+	 * @return <code>str</code> with a lower case first letter, the same instance if it already begins lower case.
+	 */
 	public static String toLowerCaseBegin(String str) {
-		return str.substring(0, 1).toLowerCase() + "" + str.substring(1);
+		if(str.isEmpty()){
+			return "";
+		}
+		char first = str.charAt(0);
+		if(first >= 128){
+			return str.substring(0, 1).toLowerCase() + str.substring(1);
+		}
+		char lower = Character.toLowerCase(first);
+		if(lower == first){
+			return str;
+		}
+		char[] chars = str.toCharArray();
+		chars[0] = lower;
+		return new String(chars);
 	}
 
+	/**
+	 * @return <code>str</code> with an upper case first letter, the same instance if it already begins upper case.
+	 */
 	public static String toUpperCaseBegin(String str) {
-		if(!str.isEmpty()){
-			return str.substring(0, 1).toUpperCase() + "" + str.substring(1);
+		if(str.isEmpty()){
+			return "";
 		}
-		return "";
+		char first = str.charAt(0);
+		if(first >= 128){
+			return str.substring(0, 1).toUpperCase() + str.substring(1);
+		}
+		char upper = Character.toUpperCase(first);
+		if(upper == first){
+			return str;
+		}
+		char[] chars = str.toCharArray();
+		chars[0] = upper;
+		return new String(chars);
 	}
 
+	/**
+	 * Removes all occurrences of the given strings one after another, in the order of <code>toBeRemoved</code>.
+	 * A removal can join parts of the text into a new occurrence of a later string, which is then removed as well.
+	 * <br><b>Example:</b>
+	 * <br><code>removeFromString("abc", new String[]{"b", "ac"})</code> returns ""
+	 * <br>
+	 * <br>If no string overlaps another or itself (e.g. "ab" and "bc" do, "aba" does) the text is walked a single time
+	 * with a {@link MultiPatternMatcher}, falling back to removing one string after another only if that leaves an occurrence.
+	 */
 	public static String removeFromString(String containingString,
 			String[] toBeRemoved) {
+		if(toBeRemoved.length > 1 && !containsEmptyString(toBeRemoved) && !anyOverlaps(toBeRemoved)){
+			MultiPatternMatcher matcher = new MultiPatternMatcher(toBeRemoved);
+			String removed = matcher.removeAll(containingString);
+			if(!matcher.containsAny(removed)){
+				return removed;
+			}
+		}
 		for (String remove : toBeRemoved) {
 			containingString = containingString.replace(remove, "");
 		}
 		return containingString;
 	}
 
+	private static boolean containsEmptyString(String[] strings) {
+		for (String s : strings) {
+			if (s.isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether an occurrence of one of the strings can overlap an occurrence of another or the same string,
+	 * i.e. whether a string contains another one or a string ends with the beginning of another or itself.
+	 * Without overlaps all occurrences are disjoint, so removing them at once is the same as removing them one by one,
+	 * as long as no removal creates a new occurrence.
+	 */
+	private static boolean anyOverlaps(String[] strings) {
+		for (int i = 0; i < strings.length; i++) {
+			String a = strings[i];
+			for (int j = 0; j < strings.length; j++) {
+				String b = strings[j];
+				if (i != j && a.contains(b)) {
+					return true;
+				}
+				for (int len = Math.min(a.length(), b.length()) - (i == j ? 1 : 0); len > 0; len--) {
+					if (a.regionMatches(a.length() - len, b, 0, len)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Counts the matches of the regular expression <code>find</code> in <code>container</code>.
+	 * The compiled expression is taken from {@link PatternCache#getShared()}.
+	 */
 	public static int countOccurrence(String container, String find) {
-		Pattern p = Pattern.compile(find);
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		Pattern p = PatternCache.getShared().get(find);
 		Matcher m = p.matcher(container);
 		int count = 0;
 		while (m.find()) {
 			count += 1;
 		}
+		if (UtilsMetrics.ENABLED) {
+			COUNT_OCCURRENCE_METRICS.record(start, container.length(), 0);
+		}
 		return count;
 	}
 	
+	/**
+	 * Counts the non overlapping occurrences of the literal (non regex) string <code>find</code>.
+	 * Unlike {@link #countOccurrence(String, String)} no escaping and no pattern compilation is needed.
+	 * @see LiteralSearcher
+	 */
+	public static int countLiteral(String container, String find) {
+		return countLiteral(container, find, false);
+	}
+	
+	/**
+	 * Counts the occurrences of the literal (non regex) string <code>find</code>.
+	 * @param overlapping Whether an occurrence may start within the previous one.
+	 */
+	public static int countLiteral(String container, String find, boolean overlapping) {
+		return new LiteralSearcher(find).count(container, overlapping);
+	}
+	
+	/**
+	 * Detects the start positions of all non overlapping occurrences of the literal string <code>find</code>.
+	 * <br><b>Example:</b>
+	 * <br><code>indexOfAll("a.b.c", ".")</code> returns [1, 3]
+	 */
+	public static int[] indexOfAll(String container, String find) {
+		return new LiteralSearcher(find).indexOfAll(container, false);
+	}
+	
 	public static String escapeRegExCharacters(final String nonRegExString) {
-		String[] regExExpressions = {"\\", "$", "[", "]", "(", ")", "{", "}", "|", "^", "*", "+", "?", "."};
-		String regExString = nonRegExString;
-		for(String replace:regExExpressions){
-			regExString = regExString.replace(replace, "\\"+replace);
-		}
-		return regExString;
+		return REG_EX_CHARACTER_MATCHER.replaceAll(nonRegExString, REG_EX_CHARACTER_ESCAPES);
 	}
 
+	/**
+	 * Replaces the range <code>replacePosStart ... replacePosEnd</code> of <code>text</code>.
+	 * If <code>replacePosEnd</code> is before <code>replacePosStart</code>, the chars in between appear on both sides of the replacement.
+	 * <br><b>Example:</b>
+	 * <br><code>replaceAtPosition("abcd", 1, 3, "X")</code> returns "aXd"
+	 * @throws StringIndexOutOfBoundsException If a position is negative or beyond the end of <code>text</code>.
+	 */
 	public static String replaceAtPosition(final String text,
 			int replacePosStart, int replacePosEnd, final String replacement) {
-		String pre = text.substring(0, replacePosStart);
-		String post = text.substring(replacePosEnd);
-		return pre+replacement+post;
+		if(replacePosStart < 0 || replacePosStart > text.length() || replacePosEnd < 0 || replacePosEnd > text.length()){
+			throw new StringIndexOutOfBoundsException("range "+replacePosStart+".."+replacePosEnd+", length "+text.length());
+		}
+		StringBuilder out = new StringBuilder(text.length() - (replacePosEnd - replacePosStart) + String.valueOf(replacement).length());
+		return appendReplacedAtPosition(out, text, replacePosStart, replacePosEnd, replacement).toString();
+	}
+	
+	/**
+	 * Appends <code>text</code> with the range <code>replacePosStart ... replacePosEnd</code> replaced to <code>out</code>
+	 * without creating intermediate Strings.
+	 * @return <code>out</code>
+	 */
+	public static StringBuilder appendReplacedAtPosition(StringBuilder out, final CharSequence text,
+			int replacePosStart, int replacePosEnd, final CharSequence replacement) {
+		return out.append(text, 0, replacePosStart)
+				.append(replacement)
+				.append(text, replacePosEnd, text.length());
 	}
 
 	public static int endIndexOf(String string, String find) {
@@ -381,24 +739,26 @@ public class StringUtils implements Serializable{
 		return pos;
 	}
 
+	/**
+	 * @return The first occurrence of every string in order of <code>strings</code>.
+	 * @see SetOperations#distinct(java.util.Collection)
+	 */
 	public static List<String> getDistinctValues(List<String> strings) {
-		
-		List<String> distincts = new ArrayList<String>();
-		for(String s:strings){
-			if(!isContainedInList(s, distincts)){
-				distincts.add(s);
-			}
-		}
-		return distincts;
+		return SetOperations.distinct(strings);
 	}
 	
+	/**
+	 * @return The first occurrence of every string in order of <code>strings</code>, detected by hashing the UTF-8 bytes.
+	 */
+	public static CompactStringList getDistinctValues(CompactStringList strings) {
+		return strings.distinct();
+	}
+	
+	/**
+	 * Checks whether <code>values</code> contains <code>checkValue</code>. Sets are queried by hash lookup.
+	 */
 	public static boolean isContainedInList(String checkValue, Iterable<String> values){
-		for(String listValue:values){
-			if(listValue.equals(checkValue)){
-				return true;
-			}
-		}
-		return false;
+		return SetOperations.contains(values, checkValue);
 	}
 	public static boolean isContainedInArray(String checkValue, String... values){
 		for(String listValue:values){
@@ -409,37 +769,47 @@ public class StringUtils implements Serializable{
 		return false;
 	}
 	
+	/**
+	 * Atomically replaces the file's content with <code>output</code>, encoded with the platform's default charset.
+	 * A crash during the write leaves the old content in place instead of a truncated file.
+	 * @see AtomicFileWriter
+	 */
 	public static void writeStringToFile(String output, File file) {
+		writeStringToFile(output, file.toPath(), Charset.defaultCharset());
+	}
+	
+	/**
+	 * Atomically replaces the file's content with <code>output</code>, encoded with <code>charset</code>.
+	 * @see AtomicFileWriter
+	 */
+	public static void writeStringToFile(String output, Path file, Charset charset) {
 		try{
-			FileWriter writer = new FileWriter(file);
-			writer.write(output);
-			writer.close();
+			new AtomicFileWriter(charset, false).write(file, output);
 		}catch(IOException e){
 			throw new LagoonUtilsException(e);
 		}
 	}
 	
+	/**
+	 * Determines the longest substring contained in both strings. If there are several, the one occurring first in <code>string1</code> is returned.
+	 * <br>To compare one string against many candidates build a {@link SuffixAutomaton} once and query it instead.
+	 * @return The longest common substring or an empty String if there is none.
+	 */
 	public static String getLongestCommonSubstring(String string1, String string2){
-		int start = 0;
-	    int max = 0;
-	    for (int i = 0; i < string1.length(); i++)
-	    {
-	        for (int j = 0; j < string2.length(); j++)
-	        {
-	            int x = 0;
-	            while (string1.charAt(i + x) == string2.charAt(j + x))
-	            {
-	                x++;
-	                if (((i + x) >= string1.length()) || ((j + x) >= string2.length())) break;
-	            }
-	            if (x > max)
-	            {
-	                max = x;
-	                start = i;
-	            }
-	         }
-	    }
-	    return string1.substring(start, (start + max));
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		String common = new SuffixAutomaton(string1).longestCommonSubstring(string2);
+		if (UtilsMetrics.ENABLED) {
+			COMMON_SUBSTRING_METRICS.record(start, string1.length() + string2.length(), 0);
+		}
+		return common;
+	}
+	
+	/**
+	 * Determines up to <code>k</code> of the longest distinct maximal common substrings of two strings.
+	 * @see SuffixAutomaton#longestCommonSubstrings(CharSequence, int)
+	 */
+	public static List<String> getLongestCommonSubstrings(String string1, String string2, int k){
+		return new SuffixAutomaton(string1).longestCommonSubstrings(string2, k);
 	}
 
 	public static int countOccurrenceInList(List<String> itemValues, String value) {
@@ -452,14 +822,42 @@ public class StringUtils implements Serializable{
 		return cnt;
 	}
 
+	/**
+	 * Counts the items equal to <code>value</code> by comparing UTF-8 bytes, without decoding any item.
+	 */
+	public static int countOccurrenceInList(CompactStringList itemValues, String value) {
+		return itemValues.count(value);
+	}
+
 	public static List<String> copyList(List<String> strings) {
 		return (List<String>) CollectionUtils.copyList(strings);
 	}
 
+	public static CompactStringList copyList(CompactStringList strings) {
+		return strings.copy();
+	}
+
+	/**
+	 * Checks whether a string contains a whitespace as defined by the regular expression <code>\s</code>.
+	 */
 	public static boolean containsWhitespace(String lookup) {
-		Pattern pat = Pattern.compile("\\s");
-		Matcher mat = pat.matcher(lookup);
-		return mat.find();
+		for(int i = 0; i < lookup.length(); i++){
+			if(isRegExWhitespace(lookup.charAt(i))){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return true if <code>c</code> matches the regular expression <code>\s</code>, i.e. <code>[ \t\n\x0B\f\r]</code>
+	 */
+	private static boolean isRegExWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+	
+	private static boolean isHtmlAwareWhitespace(char c) {
+		return isRegExWhitespace(c) || c == '\u00A0';
 	}
 
 	public static boolean isSubstringContainedInList(List<String> subList,
@@ -484,11 +882,7 @@ public class StringUtils implements Serializable{
 		if(pos < 0){
 			return containingString;
 		}
-			
-		String pre = containingString.substring(0, pos);
-		String post = containingString.substring(pos+find.length());
-		
-		return pre + replace +post;
+		return replaceAtPosition(containingString, pos, pos+find.length(), replace);
 	}
 	
 	public static String replaceLastOccurrence(String containingString, String find,
@@ -497,11 +891,7 @@ public class StringUtils implements Serializable{
 		if(pos<0){
 			return containingString;
 		}
-			
-		String pre = containingString.substring(0, pos);
-		String post = containingString.substring(pos+find.length());
-		
-		return pre + replace +post;
+		return replaceAtPosition(containingString, pos, pos+find.length(), replace);
 	}
 
 	public static String[] trimAllItems(String[] toTrim) {
@@ -537,11 +927,15 @@ public class StringUtils implements Serializable{
 	}
 	
 	public static String concatStrings(List<String> values) {
-		String out = "";
+		int length = 0;
 		for(String value: values){
-			out += value;
+			length += String.valueOf(value).length();
 		}
-		return out;
+		StringBuilder out = new StringBuilder(length);
+		for(String value: values){
+			out.append(value);
+		}
+		return out.toString();
 	}
 
 	public static String emptyIfNull(final String value) {
@@ -576,12 +970,33 @@ public class StringUtils implements Serializable{
 		} 
 	}
 	
+	/**
+	 * Trims whitespace (see {@link #HTML_AWARE_WHITESPACE_EXPR}) including NO-BREAK SPACEs from both ends.
+	 * @return The trimmed String, the same instance if there is nothing to trim.
+	 */
 	public static String trimHtmlAware(String s){
-		String out = s.replaceFirst(HTML_AWARE_WHITESPACE_BEGIN_EXPR,"");
-		out = out.replaceFirst(HTML_AWARE_WHITESPACE_END_EXPR,"");
-		return out;
+		int begin = 0;
+		int end = s.length();
+		while(begin < end && isHtmlAwareWhitespace(s.charAt(begin))){
+			begin++;
+		}
+		while(end > begin && isHtmlAwareWhitespace(s.charAt(end - 1))){
+			end--;
+		}
+		return s.substring(begin, end);
 	}
 	
+	/**
+	 * Trims whitespace including NO-BREAK SPACEs and replaces each whitespace run inside by a single space, in a single pass.
+	 * <br><b>Example:</b>
+	 * <br><code>normalizeHtmlWhitespace(" a  b\n")</code> returns "a b"
+	 * @return The normalized String, the same instance if nothing changed.
+	 * @see HtmlWhitespaceNormalizer
+	 */
+	public static String normalizeHtmlWhitespace(String s){
+		return HTML_WHITESPACE_NORMALIZER.normalize(s);
+	}
+
 	/**
 	 * Replaces so called NO-BREAK SPACE (unicode 'u+200', html '&nbsp;') with regulare spaces;
 	 * @param val
@@ -594,11 +1009,43 @@ public class StringUtils implements Serializable{
 
 	public static List<String> replaceInAll(List<String> strings, String find, String replace) {
 		
-		List<String> out = new ArrayList<String>();
+		long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+		List<String> out = new ArrayList<String>(strings.size());
+		if(find.isEmpty()){
+			for(String s : strings){
+				out.add(s.replace(find, replace));
+			}
+		} else {
+			MultiPatternMatcher matcher = new MultiPatternMatcher(find);
+			for(String s : strings){
+				out.add(matcher.replaceAll(s, replace));
+			}
+		}
+		if (UtilsMetrics.ENABLED) {
+			REPLACE_IN_ALL_METRICS.record(start, strings.size(), 0);
+		}
+		return out;
+	}
+	
+	/**
+	 * Replaces all keys of <code>replacements</code> by their values in each string, walking every string only once.
+	 * @return New list containing the replaced strings.
+	 */
+	public static List<String> replaceInAll(List<String> strings, Map<String, String> replacements) {
+		
+		MultiPatternMatcher matcher = new MultiPatternMatcher(replacements.keySet());
+		List<String> out = new ArrayList<String>(strings.size());
 		for(String s : strings){
-			String replaced = s.replace(find, replace);
-			out.add(replaced);
+			out.add(matcher.replaceAll(s, replacements));
 		}
 		return out;
 	}
+	
+	/**
+	 * Replaces <code>find</code> by <code>replace</code> in each string, working on the UTF-8 bytes without decoding.
+	 * @return New list containing the replaced strings.
+	 */
+	public static CompactStringList replaceInAll(CompactStringList strings, String find, String replace) {
+		return strings.replaceAll(find, replace);
+	}
 }
@@ -0,0 +1,252 @@
+package io.lemontree.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Suffix automaton of a string. Built once in linear time, it answers common substring queries
+ * for any number of candidate strings in time linear to the candidate's length.
+ * <br><b>Example:</b>
+ * <br>automaton = new SuffixAutomaton("xabcdy")
+ * <br><code>automaton.longestCommonSubstring("zzbcdzz")</code> returns "bcd"
+ * <br><code>automaton.longestCommonSubstring("abq")</code> returns "ab"
+ * <br>
+ * <br>Instances are immutable and may be shared between threads.
+ */
+public class SuffixAutomaton {
+
+	private final String text;
+
+	// states
+	private int stateCount;
+	private int[] length;
+	private int[] link;
+	/** End position (inclusive) of the first occurrence of a state's strings in {@link #text}. */
+	private int[] firstEnd;
+	private int[] firstEdge;
+
+	// transitions, kept as linked lists per state
+	private int edgeCount;
+	private char[] edgeChar;
+	private int[] edgeTarget;
+	private int[] nextEdge;
+
+	public SuffixAutomaton(String text) {
+		this.text = text;
+		int maxStates = Math.max(2, 2 * text.length());
+		length = new int[maxStates];
+		link = new int[maxStates];
+		firstEnd = new int[maxStates];
+		firstEdge = new int[maxStates];
+		int maxEdges = Math.max(4, 3 * text.length());
+		edgeChar = new char[maxEdges];
+		edgeTarget = new int[maxEdges];
+		nextEdge = new int[maxEdges];
+
+		newState(0, -1);
+		link[0] = -1;
+		int last = 0;
+		for (int i = 0; i < text.length(); i++) {
+			last = extend(last, text.charAt(i), i);
+		}
+	}
+
+	private int newState(int len, int end) {
+		int state = stateCount++;
+		length[state] = len;
+		firstEnd[state] = end;
+		firstEdge[state] = -1;
+		return state;
+	}
+
+	private int extend(int last, char c, int pos) {
+		int cur = newState(length[last] + 1, pos);
+		int p = last;
+		while (p != -1 && findEdge(p, c) == -1) {
+			addEdge(p, c, cur);
+			p = link[p];
+		}
+		if (p == -1) {
+			link[cur] = 0;
+			return cur;
+		}
+		int q = edgeTarget[findEdge(p, c)];
+		if (length[p] + 1 == length[q]) {
+			link[cur] = q;
+			return cur;
+		}
+		int clone = newState(length[p] + 1, firstEnd[q]);
+		for (int e = firstEdge[q]; e != -1; e = nextEdge[e]) {
+			addEdge(clone, edgeChar[e], edgeTarget[e]);
+		}
+		link[clone] = link[q];
+		int edge;
+		while (p != -1 && edgeTarget[edge = findEdge(p, c)] == q) {
+			edgeTarget[edge] = clone;
+			p = link[p];
+		}
+		link[q] = clone;
+		link[cur] = clone;
+		return cur;
+	}
+
+	private int findEdge(int state, char c) {
+		for (int e = firstEdge[state]; e != -1; e = nextEdge[e]) {
+			if (edgeChar[e] == c) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	private void addEdge(int state, char c, int target) {
+		if (edgeCount == edgeChar.length) {
+			int capacity = edgeCount * 2;
+			edgeChar = Arrays.copyOf(edgeChar, capacity);
+			edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+			nextEdge = Arrays.copyOf(nextEdge, capacity);
+		}
+		edgeChar[edgeCount] = c;
+		edgeTarget[edgeCount] = target;
+		nextEdge[edgeCount] = firstEdge[state];
+		firstEdge[state] = edgeCount++;
+	}
+
+	/**
+	 * @return The string this automaton was built from.
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Checks whether <code>candidate</code> is a substring of the indexed text.
+	 */
+	public boolean contains(CharSequence candidate) {
+		int state = 0;
+		for (int i = 0; i < candidate.length(); i++) {
+			int edge = findEdge(state, candidate.charAt(i));
+			if (edge == -1) {
+				return false;
+			}
+			state = edgeTarget[edge];
+		}
+		return true;
+	}
+
+	/**
+	 * Determines the longest substring contained in both the indexed text and <code>candidate</code>.
+	 * If there are several, the one occurring first in the indexed text is returned.
+	 * @return The longest common substring or an empty String if there is none.
+	 */
+	public String longestCommonSubstring(CharSequence candidate) {
+		PositionRange range = longestCommonSubstringPosition(candidate);
+		return text.substring(range.getStart(), range.getEnd());
+	}
+
+	/**
+	 * Same as {@link #longestCommonSubstring(CharSequence)} but returns the position within the indexed text.
+	 * @return Range of the longest common substring, <code>end</code> is exclusive. <code>start == end</code> if there is none.
+	 */
+	public PositionRange longestCommonSubstringPosition(CharSequence candidate) {
+		int bestStart = 0;
+		int bestLength = 0;
+		int state = 0;
+		int matched = 0;
+		for (int i = 0; i < candidate.length(); i++) {
+			char c = candidate.charAt(i);
+			int edge;
+			while ((edge = findEdge(state, c)) == -1 && state != 0) {
+				state = link[state];
+				matched = length[state];
+			}
+			if (edge == -1) {
+				continue;
+			}
+			state = edgeTarget[edge];
+			matched++;
+			int start = firstEnd[state] - matched + 1;
+			if (matched > bestLength || (matched == bestLength && start < bestStart)) {
+				bestLength = matched;
+				bestStart = start;
+			}
+		}
+		return new PositionRange(bestStart, bestStart + bestLength);
+	}
+
+	/**
+	 * Determines up to <code>k</code> of the longest distinct maximal matches between the indexed text and <code>candidate</code>.
+	 * A maximal match is a common substring that can neither be extended to the left nor to the right at its position in <code>candidate</code>.
+	 * <br><b>Example:</b>
+	 * <br><code>new SuffixAutomaton("abcdxyz").longestCommonSubstrings("xyzabcq", 2)</code> returns ["xyz", "abc"]
+	 * @return Matches ordered by length descending, equally long ones by their position in <code>candidate</code>.
+	 */
+	public List<String> longestCommonSubstrings(CharSequence candidate, int k) {
+		if (k <= 0) {
+			return new ArrayList<String>();
+		}
+		int n = candidate.length();
+		// longest match ending at each candidate position
+		int[] matchedAt = new int[n];
+		int state = 0;
+		int matched = 0;
+		for (int i = 0; i < n; i++) {
+			char c = candidate.charAt(i);
+			int edge;
+			while ((edge = findEdge(state, c)) == -1 && state != 0) {
+				state = link[state];
+				matched = length[state];
+			}
+			if (edge == -1) {
+				matched = 0;
+			} else {
+				state = edgeTarget[edge];
+				matched++;
+			}
+			matchedAt[i] = matched;
+		}
+
+		Comparator<int[]> shorterOrLater = new Comparator<int[]>() {
+			@Override
+			public int compare(int[] a, int[] b) {
+				if (a[1] != b[1]) {
+					return Integer.compare(a[1], b[1]);
+				}
+				return Integer.compare(b[0], a[0]);
+			}
+		};
+		PriorityQueue<int[]> best = new PriorityQueue<int[]>(k + 1, shorterOrLater);
+		Set<String> seen = new HashSet<String>();
+		for (int i = 0; i < n; i++) {
+			int len = matchedAt[i];
+			boolean rightMaximal = i == n - 1 || matchedAt[i + 1] != len + 1;
+			if (len == 0 || !rightMaximal) {
+				continue;
+			}
+			int[] match = {i - len + 1, len};
+			if (best.size() == k && shorterOrLater.compare(match, best.peek()) <= 0) {
+				continue;
+			}
+			if (!seen.add(candidate.subSequence(match[0], match[0] + len).toString())) {
+				continue;
+			}
+			best.add(match);
+			if (best.size() > k) {
+				best.poll();
+			}
+		}
+		List<int[]> ordered = new ArrayList<int[]>(best);
+		Collections.sort(ordered, Collections.reverseOrder(shorterOrLater));
+		List<String> out = new ArrayList<String>(ordered.size());
+		for (int[] match : ordered) {
+			out.add(candidate.subSequence(match[0], match[0] + match[1]).toString());
+		}
+		return out;
+	}
+}
@@ -0,0 +1,56 @@
+package io.lemontree.utils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes one line per operation with calls, sizes and latency percentiles in microseconds.
+ * <br><b>Example:</b>
+ * <pre>
+ * StringUtils.readFileAsString calls=1200 inputSize=0 bytes=98304000 meanUs=812.4 p50Us=640 p99Us=4100 p999Us=9800 maxUs=12044
+ * </pre>
+ */
+public class TextMetricsExporter implements MetricsExporter {
+
+	private final Appendable out;
+
+	/**
+	 * Writes to <code>System.out</code>; used when registered as a service.
+	 */
+	public TextMetricsExporter() {
+		this(System.out);
+	}
+
+	public TextMetricsExporter(Appendable out) {
+		this.out = out;
+	}
+
+	@Override
+	public void export(MetricsSnapshot snapshot) throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (OperationMetrics.Snapshot operation : snapshot.getOperations()) {
+			LatencyHistogram.Snapshot latency = operation.getLatency();
+			text.append(operation.getName())
+				.append(" calls=").append(operation.getCalls())
+				.append(" inputSize=").append(operation.getInputSize())
+				.append(" bytes=").append(operation.getBytes())
+				.append(" meanUs=").append(Math.round(latency.getMean() / 100.0) / 10.0)
+				.append(" p50Us=").append(micros(latency.getValueAtPercentile(50)))
+				.append(" p99Us=").append(micros(latency.getValueAtPercentile(99)))
+				.append(" p999Us=").append(micros(latency.getValueAtPercentile(99.9)))
+				.append(" maxUs=").append(micros(latency.getMax()))
+				.append('\n');
+		}
+		synchronized (out) {
+			out.append(text);
+			if (out instanceof PrintStream) {
+				((PrintStream) out).flush();
+			}
+		}
+	}
+
+	private static long micros(long nanos) {
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
@@ -0,0 +1,133 @@
+package io.lemontree.utils;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional instrumentation of the utility hot paths: call counts, input sizes, bytes processed and latency histograms
+ * per operation. Disabled by default; enable it with the system property
+ * <code>-Dlemontree.utils.metrics.enabled=true</code>. The switch is read once into the constant {@link #ENABLED},
+ * so the JIT removes the instrumentation completely from the instrumented methods when it is off.
+ * <br>
+ * <br><b>Example:</b>
+ * <pre>
+ * MetricsSnapshot snapshot = UtilsMetrics.snapshot();
+ * long p99 = snapshot.get("StringUtils.readFileAsString").getLatency().getValueAtPercentile(99);
+ * UtilsMetrics.scheduleExport(new TextMetricsExporter(), 1, TimeUnit.MINUTES);
+ * </pre>
+ * Instrumenting a method:
+ * <pre>
+ * private static final OperationMetrics PARSE = UtilsMetrics.operation("MyParser.parse");
+ * ...
+ * long start = UtilsMetrics.ENABLED ? System.nanoTime() : 0L;
+ * ...
+ * if (UtilsMetrics.ENABLED) {
+ * 	PARSE.record(start, text.length(), 0);
+ * }
+ * </pre>
+ */
+public class UtilsMetrics {
+
+	public static final boolean ENABLED = Boolean.getBoolean("lemontree.utils.metrics.enabled");
+
+	private static final ConcurrentMap<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<String, OperationMetrics>();
+	private static ScheduledExecutorService scheduler;
+
+	static {
+		if (ENABLED) {
+			long interval = Long.getLong("lemontree.utils.metrics.exportIntervalSeconds", 60);
+			for (MetricsExporter exporter : ServiceLoader.load(MetricsExporter.class)) {
+				scheduleExport(exporter, interval, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	private UtilsMetrics() {
+	}
+
+	/**
+	 * @return The counters of the operation, created on first use. Keep the result in a static final field.
+	 */
+	public static OperationMetrics operation(String name) {
+		OperationMetrics metrics = OPERATIONS.get(name);
+		if (metrics == null) {
+			OperationMetrics created = new OperationMetrics(name);
+			metrics = OPERATIONS.putIfAbsent(name, created);
+			if (metrics == null) {
+				metrics = created;
+			}
+		}
+		return metrics;
+	}
+
+	/**
+	 * @return Counters of all operations that were called at least once, ordered by name.
+	 */
+	public static MetricsSnapshot snapshot() {
+		Map<String, OperationMetrics.Snapshot> operations = new TreeMap<String, OperationMetrics.Snapshot>();
+		for (OperationMetrics metrics : OPERATIONS.values()) {
+			OperationMetrics.Snapshot operation = metrics.snapshot();
+			if (operation.getCalls() > 0) {
+				operations.put(operation.getName(), operation);
+			}
+		}
+		return new MetricsSnapshot(System.currentTimeMillis(), operations);
+	}
+
+	/**
+	 * Sets all counters to 0.
+	 */
+	public static void reset() {
+		for (OperationMetrics metrics : OPERATIONS.values()) {
+			metrics.reset();
+		}
+	}
+
+	/**
+	 * Takes a snapshot and passes it to the exporter.
+	 * @throws LagoonUtilsException If the exporter fails.
+	 */
+	public static void export(MetricsExporter exporter) {
+		try {
+			exporter.export(snapshot());
+		} catch (Exception e) {
+			throw new LagoonUtilsException(e);
+		}
+	}
+
+	/**
+	 * Exports a snapshot periodically on a daemon thread shared by all exporters.
+	 * Failures of the exporter are printed to <code>System.err</code> and don't stop later exports.
+	 * @return Future to cancel the export.
+	 */
+	public static synchronized ScheduledFuture<?> scheduleExport(final MetricsExporter exporter, long period, TimeUnit unit) {
+		if (scheduler == null) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "lemontree-metrics-export");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					exporter.export(snapshot());
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}, period, period, unit);
+	}
+}